@@ -5,6 +5,7 @@ import com.example.emailnotification.entity.Template;
 import com.example.emailnotification.enums.EmailStatus;
 import com.example.emailnotification.repository.EmailRepository;
 import com.example.emailnotification.repository.TemplateRepository;
+import com.example.emailnotification.service.impl.EmailBodyStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -22,6 +23,7 @@ public class DataSeeder {
 
     private final EmailRepository emailRepository;
     private final TemplateRepository templateRepository;
+    private final EmailBodyStore emailBodyStore;
 
     @Bean
     @Profile("!test")
@@ -49,7 +51,7 @@ public class DataSeeder {
                     .body("Hi {{name}},\n\nExclusive offer: {{offer_details}}\nCode: {{promo_code}}\nValid until: {{expiry_date}}").build()
             ));
 
-            emailRepository.saveAll(List.of(
+            List<Email> emails = List.of(
                 Email.builder().recipientEmail("alice@example.com").subject("Welcome, Alice!").body("Hi Alice")
                     .status(EmailStatus.SENT).retryCount(0).createdAt(LocalDateTime.now().minusDays(6)).sentAt(LocalDateTime.now().minusDays(6)).build(),
                 Email.builder().recipientEmail("bob@example.com").subject("Reset your password").body("Hi Bob, click here")
@@ -66,7 +68,9 @@ public class DataSeeder {
                     .status(EmailStatus.SENT).retryCount(0).createdAt(LocalDateTime.now().minusHours(5)).sentAt(LocalDateTime.now().minusHours(5)).build(),
                 Email.builder().recipientEmail("henry@example.com").subject("Exclusive offer!").body("Hi Henry")
                     .status(EmailStatus.QUEUED).retryCount(0).createdAt(LocalDateTime.now().minusHours(2)).build()
-            ));
+            );
+            emailBodyStore.store(emails);
+            emailRepository.saveAll(emails);
 
             log.info("Seeded {} templates and {} emails", templateRepository.count(), emailRepository.count());
         };
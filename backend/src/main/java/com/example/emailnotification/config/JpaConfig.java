@@ -0,0 +1,24 @@
+package com.example.emailnotification.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    @Value("${email.batch.jdbc-size:500}")
+    private int jdbcBatchSize;
+
+    // Groups inserts/updates of the same entity into JDBC batches. On MySQL, pair with
+    // rewriteBatchedStatements=true on the JDBC URL so a batch becomes one multi-row INSERT.
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return props -> {
+            props.put("hibernate.jdbc.batch_size", jdbcBatchSize);
+            props.put("hibernate.order_inserts", true);
+            props.put("hibernate.order_updates", true);
+        };
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.emailnotification.config;
 
+import com.example.emailnotification.enums.EmailPriority;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,9 +19,104 @@ public class RabbitMQConfig {
     public static final String EXCHANGE     = "email.exchange";
     public static final String ROUTING_KEY  = "email.routingkey";
 
+    // Priority lanes — NORMAL keeps the original queue so in-flight messages still drain
+    public static final String QUEUE_HIGH        = "email.queue.high";
+    public static final String ROUTING_KEY_HIGH  = "email.routingkey.high";
+    public static final String QUEUE_LOW         = "email.queue.low";
+    public static final String ROUTING_KEY_LOW   = "email.routingkey.low";
+
+    // Rejected lane messages are dead-lettered to DLQ; unreadable ones end up in the parking lot
+    public static final String DLX                 = "email.dlx";
+    public static final String DLQ                 = "email.dlq";
+    public static final String DLQ_ROUTING_KEY     = "email.dead";
+    public static final String PARKING_LOT         = "email.parking-lot";
+
+    // Template edits are broadcast here; every node binds its own auto-delete queue
+    public static final String TEMPLATE_INVALIDATION_EXCHANGE = "email.template.invalidation";
+
+    public static String routingKey(EmailPriority priority) {
+        if (priority == null) return ROUTING_KEY;
+        return switch (priority) {
+            case HIGH -> ROUTING_KEY_HIGH;
+            case NORMAL -> ROUTING_KEY;
+            case LOW -> ROUTING_KEY_LOW;
+        };
+    }
+
+    @Value("${email.queue.concurrency:4}")
+    private int concurrency;
+
+    @Value("${email.queue.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${email.queue.prefetch:10}")
+    private int prefetch;
+
+    @Value("${email.queue.batch-size:50}")
+    private int batchSize;
+
+    // How long a consumer waits for more messages before handing over a partial batch
+    @Value("${email.queue.batch-receive-timeout-ms:100}")
+    private long batchReceiveTimeoutMs;
+
     @Bean
     public Queue emailQueue() {
-        return new Queue(QUEUE, true);
+        return laneQueue(QUEUE);
+    }
+
+    @Bean
+    public Queue highPriorityQueue() {
+        return laneQueue(QUEUE_HIGH);
+    }
+
+    @Bean
+    public Queue lowPriorityQueue() {
+        return laneQueue(QUEUE_LOW);
+    }
+
+    private static Queue laneQueue(String name) {
+        return QueueBuilder.durable(name)
+                .deadLetterExchange(DLX)
+                .deadLetterRoutingKey(DLQ_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DLX);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return new Queue(DLQ, true);
+    }
+
+    @Bean
+    public Binding deadLetterBinding(Queue deadLetterQueue, DirectExchange deadLetterExchange) {
+        return BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(DLQ_ROUTING_KEY);
+    }
+
+    // Not consumed — poison messages wait here for a human
+    @Bean
+    public Queue parkingLotQueue() {
+        return new Queue(PARKING_LOT, true);
+    }
+
+    @Bean
+    public FanoutExchange templateInvalidationExchange() {
+        return new FanoutExchange(TEMPLATE_INVALIDATION_EXCHANGE);
+    }
+
+    // Server-named, exclusive and auto-delete — lives exactly as long as this node's connection
+    @Bean
+    public Queue templateInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding templateInvalidationBinding(Queue templateInvalidationQueue,
+                                               FanoutExchange templateInvalidationExchange) {
+        return BindingBuilder.bind(templateInvalidationQueue).to(templateInvalidationExchange);
     }
 
     @Bean
@@ -29,6 +129,16 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(emailQueue).to(emailExchange).with(ROUTING_KEY);
     }
 
+    @Bean
+    public Binding highPriorityBinding(Queue highPriorityQueue, DirectExchange emailExchange) {
+        return BindingBuilder.bind(highPriorityQueue).to(emailExchange).with(ROUTING_KEY_HIGH);
+    }
+
+    @Bean
+    public Binding lowPriorityBinding(Queue lowPriorityQueue, DirectExchange emailExchange) {
+        return BindingBuilder.bind(lowPriorityQueue).to(emailExchange).with(ROUTING_KEY_LOW);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -36,8 +146,65 @@ public class RabbitMQConfig {
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory factory) {
+        // OutboxRelay waits for broker confirms before it deletes what it published
+        if (factory instanceof CachingConnectionFactory caching) {
+            caching.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.SIMPLE);
+        }
         RabbitTemplate template = new RabbitTemplate(factory);
         template.setMessageConverter(messageConverter());
         return template;
     }
+
+    /**
+     * Consumers for email.queue (NORMAL lane) — concurrency scales between the two bounds
+     * with load. Each consumer receives up to batch-size messages at a time and acks them
+     * manually once their outcomes are committed.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory emailListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory factory) {
+        return laneFactory(configurer, factory, concurrency, maxConcurrency, batchSize, batchReceiveTimeoutMs);
+    }
+
+    // HIGH lane: its own pool and small batches, so a reset email never waits for a batch to fill
+    @Bean
+    public SimpleRabbitListenerContainerFactory highPriorityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory factory,
+            @Value("${email.queue.high.concurrency:4}") int laneConcurrency,
+            @Value("${email.queue.high.max-concurrency:8}") int laneMaxConcurrency,
+            @Value("${email.queue.high.batch-size:10}") int laneBatchSize,
+            @Value("${email.queue.high.batch-receive-timeout-ms:10}") long laneReceiveTimeoutMs) {
+        return laneFactory(configurer, factory, laneConcurrency, laneMaxConcurrency, laneBatchSize, laneReceiveTimeoutMs);
+    }
+
+    // LOW lane: a bounded pool, so a campaign cannot take every consumer thread
+    @Bean
+    public SimpleRabbitListenerContainerFactory lowPriorityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory factory,
+            @Value("${email.queue.low.concurrency:2}") int laneConcurrency,
+            @Value("${email.queue.low.max-concurrency:4}") int laneMaxConcurrency,
+            @Value("${email.queue.low.batch-size:100}") int laneBatchSize,
+            @Value("${email.queue.low.batch-receive-timeout-ms:200}") long laneReceiveTimeoutMs) {
+        return laneFactory(configurer, factory, laneConcurrency, laneMaxConcurrency, laneBatchSize, laneReceiveTimeoutMs);
+    }
+
+    private SimpleRabbitListenerContainerFactory laneFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory factory,
+            int laneConcurrency, int laneMaxConcurrency, int laneBatchSize, long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory containerFactory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(containerFactory, factory);
+        containerFactory.setMessageConverter(messageConverter());
+        containerFactory.setConcurrentConsumers(laneConcurrency);
+        containerFactory.setMaxConcurrentConsumers(Math.max(laneConcurrency, laneMaxConcurrency));
+        containerFactory.setBatchListener(true);
+        containerFactory.setConsumerBatchEnabled(true);
+        containerFactory.setBatchSize(laneBatchSize);
+        containerFactory.setReceiveTimeout(receiveTimeoutMs);
+        // A full batch must fit in the unacked window
+        containerFactory.setPrefetchCount(Math.max(prefetch, laneBatchSize));
+        containerFactory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        // Delivery failures are recorded on the Email row, so never loop a message back
+        containerFactory.setDefaultRequeueRejected(false);
+        return containerFactory;
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.emailnotification.config;
+
+import com.example.emailnotification.util.ByteBufferPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "email.sender", havingValue = "sendgrid", matchIfMissing = true)
+public class SendGridConfig {
+
+    @Value("${sendgrid.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${sendgrid.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${sendgrid.http.socket-timeout-ms:10000}")
+    private int socketTimeoutMs;
+
+    @Value("${sendgrid.http.pool-timeout-ms:2000}")
+    private int poolTimeoutMs;
+
+    @Value("${sendgrid.http.keep-alive-ms:60000}")
+    private long keepAliveMs;
+
+    // One pooled client for the whole app so TLS connections to api.sendgrid.com are reused
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sendGridHttpClient() {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(keepAliveMs, TimeUnit.MILLISECONDS);
+        pool.setMaxTotal(maxConnections);
+        // Every request goes to the same host, so one route may use the whole pool
+        pool.setDefaultMaxPerRoute(maxConnections);
+        pool.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(socketTimeoutMs)
+                .setConnectionRequestTimeout(poolTimeoutMs)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> keepAliveMs)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // mail/send bodies are written into these and sent in place; one buffer per in-flight request
+    @Bean
+    public ByteBufferPool sendGridPayloadBuffers(
+            @Value("${sendgrid.payload-buffer.pool-size:64}") int poolSize,
+            @Value("${sendgrid.payload-buffer.initial-kb:64}") int initialKb,
+            @Value("${sendgrid.payload-buffer.max-retained-kb:1024}") int maxRetainedKb,
+            MeterRegistry meterRegistry) {
+        ByteBufferPool pool = new ByteBufferPool(poolSize, initialKb * 1024, maxRetainedKb * 1024);
+        // Near zero under load means sends are allocating fresh buffers — the pool is too small
+        Gauge.builder("email.sendgrid.payload-buffers.free", pool, ByteBufferPool::available)
+                .description("Pooled SendGrid request buffers ready for reuse")
+                .register(meterRegistry);
+        return pool;
+    }
+}
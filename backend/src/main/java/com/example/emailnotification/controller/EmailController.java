@@ -1,15 +1,27 @@
 package com.example.emailnotification.controller;
 
+import com.example.emailnotification.dto.request.BatchSendEmailRequest;
+import com.example.emailnotification.dto.request.EmailExportRequest;
+import com.example.emailnotification.dto.request.EmailListRequest;
 import com.example.emailnotification.dto.request.SendEmailRequest;
+import com.example.emailnotification.dto.response.BatchEmailResponse;
+import com.example.emailnotification.dto.response.EmailPageResponse;
 import com.example.emailnotification.dto.response.EmailResponse;
 import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.enums.ExportFormat;
 import com.example.emailnotification.service.EmailService;
+import com.example.emailnotification.service.ExportService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -18,10 +30,27 @@ import java.util.UUID;
 public class EmailController {
 
     private final EmailService emailService;
+    private final ExportService exportService;
 
     @PostMapping("/send")
-    public ResponseEntity<EmailResponse> sendEmail(@Valid @RequestBody SendEmailRequest request) {
-        return ResponseEntity.ok(emailService.sendEmail(request));
+    public ResponseEntity<EmailResponse> sendEmail(
+            @Valid @RequestBody SendEmailRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
+        EmailResponse response = emailService.sendEmail(request);
+        // QUEUED/SCHEDULED mean delivery happens later on the queue consumer → 202 Accepted
+        HttpStatus status = EmailStatus.QUEUED.name().equals(response.getStatus())
+                || EmailStatus.SCHEDULED.name().equals(response.getStatus())
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.OK;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchEmailResponse> sendBatch(@Valid @RequestBody BatchSendEmailRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(emailService.sendBatch(request));
     }
 
     @PostMapping("/{id}/retry")
@@ -34,8 +63,28 @@ public class EmailController {
         return ResponseEntity.ok(emailService.getEmailById(id));
     }
 
+    // Newest first, one keyset page at a time; follow nextCursor for older emails
     @GetMapping
-    public ResponseEntity<List<Email>> getAllEmails() {
-        return ResponseEntity.ok(emailService.getAllEmails());
+    public ResponseEntity<EmailPageResponse> listEmails(@Valid EmailListRequest request) {
+        return ResponseEntity.ok(emailService.listEmails(request));
+    }
+
+    /**
+     * Every email matching the listing filters, oldest first, streamed as NDJSON or with
+     * {@code format=CSV} as CSV; {@code gzip=true} compresses it and {@code includeBody=true}
+     * adds the bodies. 429 when the export slots are all taken.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmails(@Valid EmailExportRequest request) {
+        ExportService.EmailExport export = exportService.exportEmails(request);
+        boolean csv = request.getFormat() == ExportFormat.CSV;
+        String filename = "emails." + (csv ? "csv" : "ndjson") + (request.isGzip() ? ".gz" : "");
+        MediaType type = request.isGzip() ? MediaType.parseMediaType("application/gzip")
+                : csv ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(export::writeTo);
     }
 }
@@ -0,0 +1,39 @@
+package com.example.emailnotification.controller;
+
+import com.example.emailnotification.dto.response.MailMergeResponse;
+import com.example.emailnotification.enums.MergeFormat;
+import com.example.emailnotification.service.MailMergeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/emails/merge")
+@RequiredArgsConstructor
+public class MailMergeController {
+
+    private final MailMergeService mailMergeService;
+
+    /**
+     * The request body is the raw recipient file, read as a stream — e.g.
+     * {@code curl --data-binary @recipients.csv -H 'Content-Type: text/csv' '.../merge?templateId=...'}.
+     * Runs in the background → 202 Accepted; poll GET /{jobId} for progress.
+     */
+    @PostMapping
+    public ResponseEntity<MailMergeResponse> startMerge(@RequestParam UUID templateId,
+                                                        @RequestParam(defaultValue = "CSV") MergeFormat format,
+                                                        InputStream recipients) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(mailMergeService.startMerge(templateId, format, recipients));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<MailMergeResponse> getMerge(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(mailMergeService.getMerge(jobId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.emailnotification.controller;
+
+import com.example.emailnotification.dto.request.ReplayRequest;
+import com.example.emailnotification.dto.response.ReplayResponse;
+import com.example.emailnotification.service.ReplayService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/replays")
+@RequiredArgsConstructor
+public class ReplayController {
+
+    private final ReplayService replayService;
+
+    // Runs in the background → 202 Accepted; poll GET /{id} for progress
+    @PostMapping
+    public ResponseEntity<ReplayResponse> startReplay(@Valid @RequestBody ReplayRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(replayService.startReplay(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReplayResponse> getReplay(@PathVariable UUID id) {
+        return ResponseEntity.ok(replayService.getReplay(id));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReplayResponse>> getReplays() {
+        return ResponseEntity.ok(replayService.getReplays());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ReplayResponse> cancelReplay(@PathVariable UUID id) {
+        return ResponseEntity.ok(replayService.cancelReplay(id));
+    }
+}
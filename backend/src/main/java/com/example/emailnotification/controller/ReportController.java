@@ -1,13 +1,18 @@
 package com.example.emailnotification.controller;
 
 import com.example.emailnotification.dto.response.EmailStatisticsResponse;
+import com.example.emailnotification.dto.response.TemplateVersionStatsResponse;
 import com.example.emailnotification.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/reports")
 @RequiredArgsConstructor
@@ -16,7 +21,13 @@ public class ReportController {
     private final ReportService reportService;
 
     @GetMapping("/emails/statistics")
-    public ResponseEntity<EmailStatisticsResponse> getStatistics() {
-        return ResponseEntity.ok(reportService.getStatistics());
+    public ResponseEntity<EmailStatisticsResponse> getStatistics(@RequestParam(required = false) UUID templateId) {
+        return ResponseEntity.ok(reportService.getStatistics(templateId));
+    }
+
+    @GetMapping("/templates/versions")
+    public ResponseEntity<List<TemplateVersionStatsResponse>> getTemplateVersionStats(
+            @RequestParam(required = false) UUID templateId) {
+        return ResponseEntity.ok(reportService.getTemplateVersionStats(templateId));
     }
 }
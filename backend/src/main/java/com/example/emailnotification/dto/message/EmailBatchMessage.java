@@ -0,0 +1,15 @@
+package com.example.emailnotification.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailBatchMessage {
+    private UUID batchId;
+    private List<UUID> emailIds;
+}
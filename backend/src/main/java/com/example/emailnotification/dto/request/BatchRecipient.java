@@ -0,0 +1,21 @@
+package com.example.emailnotification.dto.request;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchRecipient {
+    @NotBlank @Email
+    private String recipient;
+    // Optional per-recipient overrides of the batch-level subject/body
+    private String subject;
+    private String body;
+    // Template values for this recipient, over the batch-level ones
+    private Map<String, Object> variables;
+}
@@ -0,0 +1,46 @@
+package com.example.emailnotification.dto.request;
+
+import com.example.emailnotification.enums.EmailPriority;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchSendEmailRequest {
+    // Shared content, used for every recipient that does not override it
+    private String subject;
+    private String body;
+    private String templateId;
+    // Template values shared by every recipient
+    private Map<String, Object> variables;
+    // Falls back to the template's default, then LOW — batches are campaign traffic
+    private EmailPriority priority;
+    // Future time to deliver the whole batch at; null or past means now
+    private LocalDateTime scheduledAt;
+
+    @NotEmpty @Size(max = 10_000) @Valid
+    private List<BatchRecipient> recipients;
+
+    @JsonIgnore
+    @AssertTrue(message = "every recipient needs a subject and body, either shared, its own or from the template")
+    public boolean isContentResolvable() {
+        if (recipients == null || hasText(templateId)) return true;
+        return recipients.stream().allMatch(r ->
+                hasText(r.getSubject() != null ? r.getSubject() : subject)
+                        && hasText(r.getBody() != null ? r.getBody() : body));
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.emailnotification.dto.request;
 
+import com.example.emailnotification.enums.EmailPriority;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 
@@ -14,4 +15,5 @@ public class CreateTemplateRequest {
     private String subject;
     @NotBlank
     private String body;
+    private EmailPriority defaultPriority;
 }
@@ -0,0 +1,29 @@
+package com.example.emailnotification.dto.request;
+
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.enums.ExportFormat;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query parameters of GET /api/emails/export — the listing's filters, without paging
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailExportRequest {
+    private EmailStatus status;
+    // Prefix of the recipient address
+    private String recipient;
+    // createdAt range, from inclusive and to exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    @Builder.Default
+    private ExportFormat format = ExportFormat.NDJSON;
+    private boolean gzip;
+    // Adds each email's body, read from email_bodies
+    private boolean includeBody;
+}
@@ -0,0 +1,31 @@
+package com.example.emailnotification.dto.request;
+
+import com.example.emailnotification.enums.EmailStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query parameters of GET /api/emails; every filter is optional
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailListRequest {
+    private EmailStatus status;
+    // Prefix of the recipient address
+    private String recipient;
+    // createdAt range, from inclusive and to exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    // nextCursor of the previous page; absent for the first page
+    private String cursor;
+    @Positive
+    @Max(500)
+    @Builder.Default
+    private int limit = 50;
+}
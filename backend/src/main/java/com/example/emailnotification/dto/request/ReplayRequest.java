@@ -0,0 +1,36 @@
+package com.example.emailnotification.dto.request;
+
+import com.example.emailnotification.enums.EmailStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplayRequest {
+    // FAILED and/or PARKED; empty means both
+    private List<EmailStatus> statuses;
+    // Substring of the recorded error message, e.g. "Unauthorized"
+    private String errorContains;
+    // createdAt range, from inclusive and to exclusive; either end may be open
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private UUID templateId;
+    // Stop after this many emails; null replays every match
+    @Positive
+    private Integer limit;
+
+    @JsonIgnore
+    @AssertTrue(message = "only FAILED and PARKED emails can be replayed")
+    public boolean isReplayableStatuses() {
+        return statuses == null || Set.of(EmailStatus.FAILED, EmailStatus.PARKED).containsAll(statuses);
+    }
+}
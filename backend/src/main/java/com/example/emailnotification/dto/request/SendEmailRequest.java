@@ -1,9 +1,16 @@
 package com.example.emailnotification.dto.request;
 
+import com.example.emailnotification.enums.EmailPriority;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,9 +18,27 @@ import lombok.*;
 public class SendEmailRequest {
     @NotBlank @Email
     private String recipient;
-    @NotBlank
+    // Either both given, or rendered from the template for whichever is missing
     private String subject;
-    @NotBlank
     private String body;
     private String templateId;
+    // Values for the template's {{placeholders}}; nested maps serve dotted names like customer.name
+    private Map<String, Object> variables;
+    // Falls back to the template's default, then NORMAL
+    private EmailPriority priority;
+    // Future time to deliver at; null or past means now
+    private LocalDateTime scheduledAt;
+    // Same as the Idempotency-Key header; the header wins when both are given
+    @Size(max = 255)
+    private String idempotencyKey;
+
+    @JsonIgnore
+    @AssertTrue(message = "subject and body are required unless a templateId is given")
+    public boolean isContentResolvable() {
+        return hasText(templateId) || (hasText(subject) && hasText(body));
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
 }
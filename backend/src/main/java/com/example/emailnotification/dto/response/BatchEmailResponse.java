@@ -0,0 +1,18 @@
+package com.example.emailnotification.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchEmailResponse {
+    private UUID batchId;
+    private String status;
+    private int count;
+    private List<UUID> emailIds;   // same order as the request's recipients
+    private String message;
+}
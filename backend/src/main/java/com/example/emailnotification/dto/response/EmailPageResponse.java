@@ -0,0 +1,15 @@
+package com.example.emailnotification.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailPageResponse {
+    private List<EmailSummaryResponse> items;
+    // Pass back as ?cursor= for the next (older) page; null on the last page
+    private String nextCursor;
+}
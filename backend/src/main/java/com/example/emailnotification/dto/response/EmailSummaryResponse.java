@@ -0,0 +1,26 @@
+package com.example.emailnotification.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One row of the email list — everything but the body
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailSummaryResponse {
+    private UUID id;
+    private String recipientEmail;
+    private String subject;
+    private String status;
+    private String priority;
+    private int retryCount;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+    private LocalDateTime scheduledAt;
+    private UUID batchId;
+    private UUID templateId;
+}
@@ -0,0 +1,23 @@
+package com.example.emailnotification.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailMergeResponse {
+    private UUID jobId;             // also the batchId of every email the job creates
+    private String status;          // PENDING, RUNNING, COMPLETED or FAILED
+    private long rowsRead;
+    private long queued;
+    private long rejected;
+    private List<String> errors;    // the first few rejected rows, with their line numbers
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+}
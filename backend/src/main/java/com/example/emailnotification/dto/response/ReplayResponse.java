@@ -0,0 +1,19 @@
+package com.example.emailnotification.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplayResponse {
+    private UUID replayId;
+    private String status;      // PENDING, RUNNING, COMPLETED, CANCELLED or FAILED
+    private int replayed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.example.emailnotification.dto.response;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TemplateVersionStatsResponse {
+    private UUID templateId;
+    private String version;
+    private boolean current;
+    private long totalSent;
+    private long totalFailed;
+    private long totalQueued;
+    private long totalEmails;
+    private double successRate;
+}
@@ -1,5 +1,7 @@
 package com.example.emailnotification.entity;
 
+import com.example.emailnotification.entity.id.TimeOrderedId;
+import com.example.emailnotification.enums.EmailPriority;
 import com.example.emailnotification.enums.EmailStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,7 +10,18 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "emails")
+@Table(name = "emails", indexes = {
+        // Only pending retries carry a value, so rebuilding the retry wheel scans just those
+        @Index(name = "idx_emails_next_attempt_at", columnList = "next_attempt_at"),
+        // The scheduled-send dispatcher loads one time window at a time through this
+        @Index(name = "idx_emails_scheduled_at", columnList = "scheduled_at"),
+        // Keyset pages of GET /api/emails — unfiltered, by status and by recipient
+        @Index(name = "idx_emails_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_emails_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_emails_recipient_created_at_id", columnList = "recipient_email, created_at, id"),
+        // Webhook events resolve their email through this
+        @Index(name = "uk_emails_provider_message_id", columnList = "provider_message_id", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +29,7 @@ import java.util.UUID;
 public class Email {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     @Column(columnDefinition = "BINARY(16)")
     private UUID id;
 
@@ -26,9 +39,15 @@ public class Email {
     @Column(nullable = false)
     private String subject;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
+    // Not a column: the content lives once per distinct body in email_bodies. Set on new
+    // emails; on loaded ones EmailBodyStore.resolve fills it in from bodyHash
+    @Transient
     private String body;
 
+    // Key of the EmailBody holding this email's body
+    @Column(name = "body_hash", length = 64, nullable = false)
+    private String bodyHash;
+
     @Enumerated(EnumType.STRING)
     private EmailStatus status;
 
@@ -44,9 +63,44 @@ public class Email {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "batch_id", columnDefinition = "BINARY(16)")
+    private UUID batchId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private EmailPriority priority;
+
+    // Template the email was sent with, if any — lets operators replay failures per template
+    @Column(name = "template_id", columnDefinition = "BINARY(16)")
+    private UUID templateId;
+
+    // TemplateVersion the subject/body were rendered from
+    @Column(name = "template_version", length = 64)
+    private String templateVersion;
+
+    // SendGrid's X-Message-Id for the send that delivered this email; null while unsent and
+    // for emails sent as one of several personalizations, which carry email_id instead
+    @Column(name = "provider_message_id", length = 64)
+    private String providerMessageId;
+
+    // Deliver no earlier than this; null means as soon as possible
+    @Column(name = "scheduled_at")
+    private LocalDateTime scheduledAt;
+
+    // When the next automatic retry is due; null when no retry is pending
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Rows written before priority lanes existed have no priority
+    public EmailPriority getPriority() {
+        return priority != null ? priority : EmailPriority.NORMAL;
+    }
+
     @PrePersist
     public void prePersist() {
         if (createdAt == null) createdAt = LocalDateTime.now();
         if (status == null) status = EmailStatus.QUEUED;
+        if (priority == null) priority = EmailPriority.NORMAL;
+        if (bodyHash == null && body != null) bodyHash = EmailBody.hash(body);
     }
 }
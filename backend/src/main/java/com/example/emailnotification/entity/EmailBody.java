@@ -0,0 +1,75 @@
+package com.example.emailnotification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * An email body stored once however many emails share it, keyed by the SHA-256 of its
+ * UTF-8 bytes ({@code Email.bodyHash} holds the key). Rows are only ever inserted, so two
+ * writers racing on the same body can only collide on the key, never disagree on content.
+ */
+@Entity
+@Table(name = "email_bodies")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Builder(access = AccessLevel.PRIVATE)
+public class EmailBody implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(columnDefinition = "MEDIUMTEXT", nullable = false, updatable = false)
+    private String content;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Only bodies not found by EmailBodyStore are saved, so save() inserts without a SELECT
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    private boolean fresh = true;
+
+    public static EmailBody of(String hash, String content) {
+        return EmailBody.builder()
+                .hash(hash)
+                .content(content)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Lower-case hex, the same as MySQL's SHA2(body, 256) on a utf8mb4 column
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.emailnotification.entity;
+
+import com.example.emailnotification.enums.EmailStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Statistics rollup: how many of the emails created on a day, from a template version,
+ * are in a status now. Maintained by StatsRollup from status transitions and reconciled against
+ * the emails table, so reports read a few rows per day instead of every email.
+ */
+@Entity
+@Table(name = "email_daily_stats")
+@IdClass(EmailDailyStat.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailDailyStat {
+
+    // Stands in for "no template" — key columns cannot be null
+    public static final UUID NO_TEMPLATE = new UUID(0, 0);
+    // Stands in for "not rendered from a template version"
+    public static final String NO_VERSION = "";
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate day;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private EmailStatus status;
+
+    @Id
+    @Column(name = "template_id", columnDefinition = "BINARY(16)")
+    private UUID templateId;
+
+    @Id
+    @Column(name = "template_version", length = 64)
+    private String templateVersion;
+
+    @Column(name = "email_count", nullable = false)
+    private long emails;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private EmailStatus status;
+        private UUID templateId;
+        private String templateVersion;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.emailnotification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A client-supplied Idempotency-Key and the response it produced. The key is the primary
+ * key, so a second insert of the same key fails on the unique index — that insert is the
+ * duplicate check.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(name = "email_id", columnDefinition = "BINARY(16)", nullable = false)
+    private UUID emailId;
+
+    // Null until the original request has finished
+    @Column(name = "response_status")
+    private String responseStatus;
+
+    @Column(name = "response_message", columnDefinition = "TEXT")
+    private String responseMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Always insert, never merge: save() must not SELECT first, the unique index decides
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean fresh = true;
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.emailnotification.entity;
+
+import com.example.emailnotification.entity.id.TimeOrderedId;
+import com.example.emailnotification.enums.EmailPriority;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * A queue message waiting to be published. Rows are written in the caller's transaction
+ * (so they commit or roll back with the emails they refer to) and deleted by
+ * {@code OutboxRelay} once the broker has confirmed them.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_messages_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxMessage {
+
+    @Id
+    @TimeOrderedId
+    @Column(columnDefinition = "BINARY(16)")
+    private UUID id;
+
+    // Null for single-email messages
+    @Column(name = "batch_id", columnDefinition = "BINARY(16)")
+    private UUID batchId;
+
+    // Lane the message is routed to; null on rows written before lanes existed → NORMAL
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private EmailPriority priority;
+
+    // Comma-separated email ids — one for pushToQueue, up to the publish size for a batch
+    @Column(name = "email_ids", columnDefinition = "TEXT", nullable = false)
+    private String emailIds;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public static OutboxMessage of(UUID batchId, EmailPriority priority, List<UUID> ids) {
+        return OutboxMessage.builder()
+                .batchId(batchId)
+                .priority(priority)
+                .emailIds(ids.stream().map(UUID::toString).collect(Collectors.joining(",")))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    public List<UUID> emailIdList() {
+        return Arrays.stream(emailIds.split(",")).map(UUID::fromString).toList();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.emailnotification.entity;
 
+import com.example.emailnotification.entity.id.TimeOrderedId;
+import com.example.emailnotification.enums.EmailPriority;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -14,7 +16,7 @@ import java.util.UUID;
 public class Template {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     @Column(columnDefinition = "BINARY(16)")
     private UUID id;
 
@@ -26,4 +28,13 @@ public class Template {
 
     @Column(columnDefinition = "TEXT", nullable = false)
     private String body;
+
+    // Lane for emails sent with this template when the request does not choose one
+    @Enumerated(EnumType.STRING)
+    @Column(name = "default_priority", length = 10)
+    private EmailPriority defaultPriority;
+
+    // Hash of the TemplateVersion holding the current subject/body
+    @Column(name = "current_version", length = 64)
+    private String currentVersion;
 }
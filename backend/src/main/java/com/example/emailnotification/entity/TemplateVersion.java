@@ -0,0 +1,95 @@
+package com.example.emailnotification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a template's subject and body, keyed by the SHA-256 of the
+ * template id and that content. Rows are only ever inserted: the same content always
+ * maps to the same version, so anything cached by version never goes stale.
+ */
+@Entity
+@Table(name = "template_versions", indexes = {
+        @Index(name = "idx_template_versions_template_id", columnList = "template_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Builder(access = AccessLevel.PRIVATE)
+public class TemplateVersion implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "template_id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
+    private UUID templateId;
+
+    @Column(nullable = false, updatable = false)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String body;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Callers check for an existing version first, so save() inserts without a SELECT
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    private boolean fresh = true;
+
+    public static TemplateVersion of(Template template) {
+        return TemplateVersion.builder()
+                .hash(hash(template.getId(), template.getSubject(), template.getBody()))
+                .templateId(template.getId())
+                .subject(template.getSubject())
+                .body(template.getBody())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static String hash(UUID templateId, String subject, String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(16)
+                    .putLong(templateId.getMostSignificantBits())
+                    .putLong(templateId.getLeastSignificantBits())
+                    .array());
+            // Length-prefix the subject so "ab"+"c" and "a"+"bc" hash differently
+            byte[] subjectBytes = subject.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(4).putInt(subjectBytes.length).array());
+            digest.update(subjectBytes);
+            digest.update(body.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
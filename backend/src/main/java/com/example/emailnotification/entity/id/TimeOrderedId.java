@@ -0,0 +1,21 @@
+package com.example.emailnotification.entity.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Generates a time-ordered (UUIDv7) id on insert, in place of
+ * {@code @GeneratedValue(strategy = GenerationType.UUID)}'s random ones — use it on
+ * insert-heavy tables whose UUID primary key is the clustered index.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedId {
+}
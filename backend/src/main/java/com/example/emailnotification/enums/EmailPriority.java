@@ -0,0 +1,8 @@
+package com.example.emailnotification.enums;
+
+// Delivery lane — each has its own queue and consumer pool (see RabbitMQConfig)
+public enum EmailPriority {
+    HIGH,     // transactional: password resets, verification codes
+    NORMAL,
+    LOW       // bulk: campaigns, newsletters
+}
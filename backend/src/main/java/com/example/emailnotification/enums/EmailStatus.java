@@ -1,5 +1,5 @@
 package com.example.emailnotification.enums;
 
 public enum EmailStatus {
-    DRAFT, QUEUED, SENT, FAILED
+    DRAFT, SCHEDULED, QUEUED, SENT, FAILED, PARKED
 }
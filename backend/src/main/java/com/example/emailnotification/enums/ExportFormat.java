@@ -0,0 +1,5 @@
+package com.example.emailnotification.enums;
+
+public enum ExportFormat {
+    NDJSON, CSV
+}
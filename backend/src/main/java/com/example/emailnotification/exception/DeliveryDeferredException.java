@@ -0,0 +1,12 @@
+package com.example.emailnotification.exception;
+
+/**
+ * A send was held back before reaching the provider (for example by the rate limiter).
+ * The email has not failed — it should stay QUEUED and be tried again later.
+ */
+public class DeliveryDeferredException extends RuntimeException {
+
+    public DeliveryDeferredException(String message) {
+        super(message);
+    }
+}
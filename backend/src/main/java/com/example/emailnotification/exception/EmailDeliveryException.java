@@ -0,0 +1,31 @@
+package com.example.emailnotification.exception;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * The provider answered a send with an error status.
+ */
+@Getter
+public class EmailDeliveryException extends IOException {
+
+    private final int statusCode;
+    private final Duration retryAfter;   // from Retry-After / rate-limit headers, null when absent
+
+    public EmailDeliveryException(int statusCode, String message, Duration retryAfter) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isThrottled() {
+        return statusCode == 429;
+    }
+
+    // Provider-side or rate problems may clear up; other 4xx (bad address, auth) will not
+    public boolean isTransient() {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+}
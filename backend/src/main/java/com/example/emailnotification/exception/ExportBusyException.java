@@ -0,0 +1,13 @@
+package com.example.emailnotification.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Every export slot is taken; the client should try again later
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ExportBusyException extends RuntimeException {
+
+    public ExportBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.emailnotification.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A send could not be built from its template — the template does not exist or a
+ * placeholder has no value in the request's variables.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TemplateRenderException extends RuntimeException {
+
+    public TemplateRenderException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.emailnotification.listener;
+
+import com.example.emailnotification.config.RabbitMQConfig;
+import com.example.emailnotification.service.impl.EmailBatchWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains email.dlq. The emails of a dead-lettered message are marked PARKED so they show
+ * up for the replay API instead of sitting QUEUED forever; a message that cannot be read
+ * (or recorded) is moved to the parking-lot queue untouched, for someone to inspect.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterListener {
+
+    public static final String LISTENER_ID = "emailDeadLetterListener";
+
+    private final EmailBatchWriter batchWriter;
+    private final MessageConverter messageConverter;
+    private final RabbitTemplate rabbitTemplate;
+
+    @RabbitListener(id = LISTENER_ID, queues = RabbitMQConfig.DLQ)
+    public void onDeadLetter(Message message) {
+        String reason = reason(message);
+        try {
+            List<UUID> ids = EmailQueueListener.readIds(messageConverter, message);
+            int parked = batchWriter.park(ids, reason);
+            log.warn("Parked {} of {} dead-lettered emails: {}", parked, ids.size(), reason);
+        } catch (RuntimeException e) {
+            log.error("Moving dead letter to {}: {}", RabbitMQConfig.PARKING_LOT, e.getMessage());
+            // Default exchange — routes straight to the queue of that name
+            rabbitTemplate.send(RabbitMQConfig.PARKING_LOT, message);
+        }
+    }
+
+    private static String reason(Message message) {
+        Object queue = message.getMessageProperties().getHeader("x-first-death-queue");
+        Object cause = message.getMessageProperties().getHeader("x-first-death-reason");
+        return "Dead-lettered from " + (queue != null ? queue : "queue") + " (" + (cause != null ? cause : "rejected") + ")";
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.emailnotification.listener;
+
+import com.example.emailnotification.service.impl.ProviderCircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the email queue consumers while the provider circuit is open, so queued emails
+ * wait in RabbitMQ instead of being taken, held and re-published in a loop. Consumers
+ * restart once the open period is over and their messages become the half-open probes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailConsumerGate {
+
+    private final ProviderCircuitBreaker circuitBreaker;
+    private final RabbitListenerEndpointRegistry registry;
+
+    @Scheduled(fixedDelayString = "${email.circuit.check-ms:1000}")
+    public void sync() {
+        if (!registry.isRunning()) return;
+        boolean accepting = circuitBreaker.isAcceptingTraffic();
+        for (String id : EmailQueueListener.LISTENER_IDS) {
+            MessageListenerContainer container = registry.getListenerContainer(id);
+            if (container == null) continue;
+            if (!accepting && container.isRunning()) {
+                log.warn("Provider circuit open — pausing {} consumers", id);
+                container.stop();
+            } else if (accepting && !container.isRunning()) {
+                log.info("Resuming {} consumers", id);
+                container.start();
+            }
+        }
+    }
+}
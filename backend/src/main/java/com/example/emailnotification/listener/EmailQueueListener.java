@@ -0,0 +1,110 @@
+package com.example.emailnotification.listener;
+
+import com.example.emailnotification.config.RabbitMQConfig;
+import com.example.emailnotification.dto.message.EmailBatchMessage;
+import com.example.emailnotification.service.EmailService;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch consumers for the priority lanes, one container (and pool) per queue. All ids in a batch of messages — single emails and
+ * grouped batch messages alike — are delivered together, and the messages are acked with
+ * one multiple-ack only after their status updates have been committed. If delivery or
+ * the status write fails, each message is nacked and requeued (at-least-once); a message
+ * that fails again on redelivery is dead-lettered instead, as is any unreadable message.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailQueueListener {
+
+    public static final String LISTENER_ID      = "emailQueueListener";
+    public static final String HIGH_LISTENER_ID = "emailHighPriorityListener";
+    public static final String LOW_LISTENER_ID  = "emailLowPriorityListener";
+    public static final List<String> LISTENER_IDS = List.of(HIGH_LISTENER_ID, LISTENER_ID, LOW_LISTENER_ID);
+
+    private final EmailService emailService;
+    private final MessageConverter messageConverter;
+
+    @Value("${email.queue.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+
+    @RabbitListener(id = HIGH_LISTENER_ID, queues = RabbitMQConfig.QUEUE_HIGH,
+            containerFactory = "highPriorityListenerContainerFactory")
+    public void onHighPriority(List<Message> messages, Channel channel) throws IOException {
+        deliver(messages, channel);
+    }
+
+    @RabbitListener(id = LISTENER_ID, queues = RabbitMQConfig.QUEUE, containerFactory = "emailListenerContainerFactory")
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        deliver(messages, channel);
+    }
+
+    @RabbitListener(id = LOW_LISTENER_ID, queues = RabbitMQConfig.QUEUE_LOW,
+            containerFactory = "lowPriorityListenerContainerFactory")
+    public void onLowPriority(List<Message> messages, Channel channel) throws IOException {
+        deliver(messages, channel);
+    }
+
+    private void deliver(List<Message> messages, Channel channel) throws IOException {
+        long lastTag = -1;
+        List<Message> readable = new ArrayList<>(messages.size());
+
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (Message message : messages) {
+            long tag = message.getMessageProperties().getDeliveryTag();
+            try {
+                ids.addAll(readIds(messageConverter, message));
+            } catch (RuntimeException e) {
+                // Unreadable message — rejected on its own so it cannot block the consumer
+                log.error("Dead-lettering unreadable queue message: {}", e.getMessage());
+                channel.basicReject(tag, false);
+                continue;
+            }
+            lastTag = Math.max(lastTag, tag);
+            readable.add(message);
+        }
+        if (lastTag < 0) return;
+        log.debug("Received {} messages with {} emails from queue", messages.size(), ids.size());
+
+        try {
+            emailService.deliverBatch(new ArrayList<>(ids)).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            channel.basicAck(lastTag, true);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            // Each message on its own: a second failure is unlikely to be transient, so a
+            // redelivered one is dead-lettered, while first-time messages get their retry
+            int deadLettered = 0;
+            for (Message message : readable) {
+                boolean redelivered = Boolean.TRUE.equals(message.getMessageProperties().getRedelivered());
+                if (redelivered) deadLettered++;
+                channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, !redelivered);
+            }
+            log.error("Delivery of {} queued emails not committed, requeueing {} messages and dead-lettering {}: {}",
+                    ids.size(), readable.size() - deadLettered, deadLettered, e.getMessage());
+        }
+    }
+
+    // A queue message carries either one email id or an EmailBatchMessage
+    static List<UUID> readIds(MessageConverter converter, Message message) {
+        Object payload = converter.fromMessage(message);
+        if (payload instanceof EmailBatchMessage batch) {
+            return batch.getEmailIds();
+        }
+        return List.of(UUID.fromString(payload.toString()));
+    }
+}
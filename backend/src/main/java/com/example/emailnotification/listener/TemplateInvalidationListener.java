@@ -0,0 +1,30 @@
+package com.example.emailnotification.listener;
+
+import com.example.emailnotification.service.impl.TemplateRenderer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Evicts templates changed on any node from this node's compiled-template cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateInvalidationListener {
+
+    private final TemplateRenderer templateRenderer;
+
+    @RabbitListener(queues = "#{templateInvalidationQueue.name}")
+    public void onInvalidation(String templateId) {
+        try {
+            templateRenderer.evict(UUID.fromString(templateId));
+            log.debug("Evicted template {} from the cache", templateId);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed template invalidation: {}", templateId);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.entity.EmailBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailBodyRepository extends JpaRepository<EmailBody, String> {
+
+    // Which of the hashes are stored already, without reading their content
+    @Query("select b.hash from EmailBody b where b.hash in :hashes")
+    List<String> findExistingHashes(@Param("hashes") Collection<String> hashes);
+}
@@ -0,0 +1,24 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.entity.EmailDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface EmailDailyStatRepository extends JpaRepository<EmailDailyStat, EmailDailyStat.Key> {
+
+    // Totals per status over every day — of one template when templateId is set
+    @Query("select s.status as status, sum(s.emails) as count from EmailDailyStat s " +
+           "where (:templateId is null or s.templateId = :templateId) group by s.status")
+    List<StatusTotal> sumByStatus(@Param("templateId") UUID templateId);
+
+    // Totals per template version and status over every day — of one template when templateId is set
+    @Query("select s.templateId as templateId, s.templateVersion as templateVersion, s.status as status, " +
+           "sum(s.emails) as count from EmailDailyStat s " +
+           "where s.templateVersion <> '' and (:templateId is null or s.templateId = :templateId) " +
+           "group by s.templateId, s.templateVersion, s.status")
+    List<TemplateVersionCount> sumByTemplateVersion(@Param("templateId") UUID templateId);
+}
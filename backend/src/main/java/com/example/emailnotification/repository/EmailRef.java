@@ -0,0 +1,11 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailPriority;
+
+import java.util.UUID;
+
+// Projection used to page through emails for a replay without loading whole Email rows
+public interface EmailRef {
+    UUID getId();
+    EmailPriority getPriority();
+}
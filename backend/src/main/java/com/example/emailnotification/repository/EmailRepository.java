@@ -2,13 +2,115 @@ package com.example.emailnotification.repository;
 
 import com.example.emailnotification.entity.Email;
 import com.example.emailnotification.enums.EmailStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface EmailRepository extends JpaRepository<Email, UUID> {
-    Optional<Email> findByRecipientEmail(String recipientEmail);
-    List<Email> findByStatus(EmailStatus status);
+    Optional<Email> findByProviderMessageId(String providerMessageId);
+
+    // Keyset page over idx_emails_next_attempt_at, ordered (next_attempt_at, id)
+    @Query("select e.id as id, e.nextAttemptAt as nextAttemptAt, e.priority as priority from Email e " +
+           "where e.nextAttemptAt > :after or (e.nextAttemptAt = :after and e.id > :afterId) " +
+           "order by e.nextAttemptAt, e.id")
+    List<PendingRetry> findPendingRetries(@Param("after") LocalDateTime after,
+                                          @Param("afterId") UUID afterId,
+                                          Pageable page);
+
+    // Keyset page of SCHEDULED emails due up to :until over idx_emails_scheduled_at, ordered (scheduled_at, id)
+    @Query("select e.id as id, e.scheduledAt as scheduledAt, e.priority as priority from Email e " +
+           "where e.status = com.example.emailnotification.enums.EmailStatus.SCHEDULED " +
+           "and (e.scheduledAt > :after or (e.scheduledAt = :after and e.id > :afterId)) " +
+           "and e.scheduledAt <= :until " +
+           "order by e.scheduledAt, e.id")
+    List<ScheduledEmail> findScheduled(@Param("after") LocalDateTime after,
+                                       @Param("afterId") UUID afterId,
+                                       @Param("until") LocalDateTime until,
+                                       Pageable page);
+
+    // Keyset page (by id) of emails in the given statuses; null filters match everything.
+    // errorContains must already be LIKE-escaped with '!'
+    @Query("select e.id as id, e.priority as priority from Email e " +
+           "where e.status in :statuses and e.id > :afterId " +
+           "and (:errorContains is null or e.errorMessage like concat('%', :errorContains, '%') escape '!') " +
+           "and (:from is null or e.createdAt >= :from) " +
+           "and (:to is null or e.createdAt < :to) " +
+           "and (:templateId is null or e.templateId = :templateId) " +
+           "order by e.id")
+    List<EmailRef> findReplayable(@Param("statuses") Collection<EmailStatus> statuses,
+                                  @Param("afterId") UUID afterId,
+                                  @Param("errorContains") String errorContains,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  @Param("templateId") UUID templateId,
+                                  Pageable page);
+
+    /**
+     * One page of emails, newest first, after the keyset position (createdAt, id) of the
+     * previous page's last row; null filters and a null position match everything.
+     */
+    @Query("select e.id as id, e.recipientEmail as recipientEmail, e.subject as subject, e.status as status, " +
+           "e.priority as priority, e.retryCount as retryCount, e.errorMessage as errorMessage, " +
+           "e.createdAt as createdAt, e.sentAt as sentAt, e.scheduledAt as scheduledAt, " +
+           "e.batchId as batchId, e.templateId as templateId from Email e " +
+           "where (:status is null or e.status = :status) " +
+           "and (:recipient is null or e.recipientEmail like concat(:recipient, '%') escape '!') " +
+           "and (:from is null or e.createdAt >= :from) " +
+           "and (:to is null or e.createdAt < :to) " +
+           "and (:afterCreatedAt is null or e.createdAt < :afterCreatedAt " +
+           "     or (e.createdAt = :afterCreatedAt and e.id < :afterId)) " +
+           "order by e.createdAt desc, e.id desc")
+    List<EmailSummary> findPage(@Param("status") EmailStatus status,
+                                @Param("recipient") String recipient,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                @Param("afterId") UUID afterId,
+                                Pageable page);
+
+    // The given emails counted per creation day, template version and status — their statistics rollup cells
+    @Query("select cast(e.createdAt as LocalDate) as day, e.templateId as templateId, " +
+           "e.templateVersion as templateVersion, e.status as status, " +
+           "count(e) as count from Email e where e.id in :ids " +
+           "group by cast(e.createdAt as LocalDate), e.templateId, e.templateVersion, e.status")
+    List<StatusCount> countForStats(@Param("ids") Collection<UUID> ids);
+
+    // The same for every email created in [from, to), read through idx_emails_created_at_id
+    @Query("select cast(e.createdAt as LocalDate) as day, e.templateId as templateId, " +
+           "e.templateVersion as templateVersion, e.status as status, " +
+           "count(e) as count from Email e where e.createdAt >= :from and e.createdAt < :to " +
+           "group by cast(e.createdAt as LocalDate), e.templateId, e.templateVersion, e.status")
+    List<StatusCount> countForStats(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select min(e.createdAt) from Email e")
+    LocalDateTime findOldestCreatedAt();
+
+    // Locks the given emails that are still in one of the statuses, so only one caller moves each
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id from Email e where e.id in :ids and e.status in :statuses")
+    List<UUID> lockInStatus(@Param("ids") Collection<UUID> ids, @Param("statuses") Collection<EmailStatus> statuses);
+
+    @Modifying
+    @Query("update Email e set e.status = com.example.emailnotification.enums.EmailStatus.QUEUED, " +
+           "e.nextAttemptAt = null where e.id in :ids")
+    int markQueued(@Param("ids") Collection<UUID> ids);
+
+    // Dead-lettered emails that were still waiting for delivery; sent or failed ones keep their outcome
+    @Transactional
+    @Modifying
+    @Query("update Email e set e.status = com.example.emailnotification.enums.EmailStatus.PARKED, " +
+           "e.errorMessage = :reason, e.nextAttemptAt = null where e.id in :ids " +
+           "and e.status = com.example.emailnotification.enums.EmailStatus.QUEUED")
+    int markParked(@Param("ids") Collection<UUID> ids, @Param("reason") String reason);
 }
@@ -0,0 +1,23 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projection for listing emails — selects only these columns, never the body
+public interface EmailSummary {
+    UUID getId();
+    String getRecipientEmail();
+    String getSubject();
+    EmailStatus getStatus();
+    EmailPriority getPriority();
+    int getRetryCount();
+    String getErrorMessage();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getSentAt();
+    LocalDateTime getScheduledAt();
+    UUID getBatchId();
+    UUID getTemplateId();
+}
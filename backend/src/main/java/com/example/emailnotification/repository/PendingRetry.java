@@ -0,0 +1,13 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailPriority;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projection used to rebuild the retry wheel without loading whole Email rows
+public interface PendingRetry {
+    UUID getId();
+    LocalDateTime getNextAttemptAt();
+    EmailPriority getPriority();
+}
@@ -0,0 +1,13 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailPriority;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projection used to load a window of scheduled sends without loading whole Email rows
+public interface ScheduledEmail {
+    UUID getId();
+    LocalDateTime getScheduledAt();
+    EmailPriority getPriority();
+}
@@ -0,0 +1,15 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// One cell of the statistics rollup: emails created on a day, from a template version, in a status
+public interface StatusCount {
+    LocalDate getDay();
+    UUID getTemplateId();
+    String getTemplateVersion();
+    EmailStatus getStatus();
+    long getCount();
+}
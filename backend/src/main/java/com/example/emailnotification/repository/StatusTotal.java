@@ -0,0 +1,9 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailStatus;
+
+// How many emails are in a status, summed over the rollup
+public interface StatusTotal {
+    EmailStatus getStatus();
+    long getCount();
+}
@@ -0,0 +1,13 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.enums.EmailStatus;
+
+import java.util.UUID;
+
+// One group of the per-template-version report: how many emails of a version are in a status
+public interface TemplateVersionCount {
+    UUID getTemplateId();
+    String getTemplateVersion();
+    EmailStatus getStatus();
+    long getCount();
+}
@@ -0,0 +1,7 @@
+package com.example.emailnotification.repository;
+
+import com.example.emailnotification.entity.TemplateVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TemplateVersionRepository extends JpaRepository<TemplateVersion, String> {
+}
@@ -0,0 +1,38 @@
+package com.example.emailnotification.service;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outcome of {@link EmailSender#sendBatch}. Emails that are neither failed nor deferred
+ * were accepted by the provider.
+ */
+@Getter
+public class BatchSendResult {
+
+    private final Map<UUID, Exception> failures = new HashMap<>();
+    private final Set<UUID> deferred = new HashSet<>();
+    // Provider message ids of accepted emails that got one to themselves
+    private final Map<UUID, String> messageIds = new HashMap<>();
+
+    public void fail(UUID emailId, Exception cause) {
+        failures.put(emailId, cause);
+    }
+
+    public void defer(UUID emailId) {
+        deferred.add(emailId);
+    }
+
+    public void accept(UUID emailId, String messageId) {
+        if (messageId != null) messageIds.put(emailId, messageId);
+    }
+
+    public boolean isAccepted(UUID emailId) {
+        return !failures.containsKey(emailId) && !deferred.contains(emailId);
+    }
+}
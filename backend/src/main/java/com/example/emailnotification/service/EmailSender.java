@@ -0,0 +1,26 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Outbound transport for emails. The active implementation is chosen with the
+ * {@code email.sender} property: {@code sendgrid} (default) or {@code in-memory}.
+ */
+public interface EmailSender {
+
+    /**
+     * @return the provider's id for the accepted message, or null if the transport has none
+     * @throws com.example.emailnotification.exception.DeliveryDeferredException if the send was
+     *         held back before reaching the provider and should be retried later
+     */
+    String sendEmail(String to, String subject, String body) throws IOException;
+
+    /**
+     * Sends several emails, batching provider calls where the transport supports it.
+     * Never throws — per-email failures and held-back emails are reported in the result.
+     */
+    BatchSendResult sendBatch(List<Email> emails);
+}
@@ -1,15 +1,23 @@
 package com.example.emailnotification.service;
 
+import com.example.emailnotification.dto.request.BatchSendEmailRequest;
+import com.example.emailnotification.dto.request.EmailListRequest;
 import com.example.emailnotification.dto.request.SendEmailRequest;
+import com.example.emailnotification.dto.response.BatchEmailResponse;
+import com.example.emailnotification.dto.response.EmailPageResponse;
 import com.example.emailnotification.dto.response.EmailResponse;
 import com.example.emailnotification.entity.Email;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface EmailService {
     EmailResponse sendEmail(SendEmailRequest request);
+    BatchEmailResponse sendBatch(BatchSendEmailRequest request);
     EmailResponse retryEmail(UUID id);
+    // Completes once the delivery outcomes are committed
+    CompletableFuture<Void> deliverBatch(List<UUID> ids);
     Email getEmailById(UUID id);
-    List<Email> getAllEmails();
+    EmailPageResponse listEmails(EmailListRequest request);
 }
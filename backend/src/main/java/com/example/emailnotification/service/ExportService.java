@@ -0,0 +1,20 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.dto.request.EmailExportRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    /**
+     * Takes an export slot — or throws ExportBusyException when all are in use — and returns
+     * the export, which frees the slot once it has been written.
+     */
+    EmailExport exportEmails(EmailExportRequest request);
+
+    @FunctionalInterface
+    interface EmailExport {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.dto.response.MailMergeResponse;
+import com.example.emailnotification.enums.MergeFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface MailMergeService {
+    // Spools the upload to disk, then merges it in the background
+    MailMergeResponse startMerge(UUID templateId, MergeFormat format, InputStream recipients) throws IOException;
+    MailMergeResponse getMerge(UUID jobId);
+}
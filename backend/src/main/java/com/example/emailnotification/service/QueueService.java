@@ -1,7 +1,11 @@
 package com.example.emailnotification.service;
 
+import com.example.emailnotification.enums.EmailPriority;
+
+import java.util.List;
 import java.util.UUID;
 
 public interface QueueService {
-    void pushToQueue(UUID emailId);
+    void pushToQueue(UUID emailId, EmailPriority priority);
+    void pushBatchToQueue(UUID batchId, EmailPriority priority, List<UUID> emailIds);
 }
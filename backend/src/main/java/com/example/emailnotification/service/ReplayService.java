@@ -0,0 +1,15 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.dto.request.ReplayRequest;
+import com.example.emailnotification.dto.response.ReplayResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReplayService {
+    // Starts a background replay and returns straight away
+    ReplayResponse startReplay(ReplayRequest request);
+    ReplayResponse getReplay(UUID replayId);
+    List<ReplayResponse> getReplays();
+    ReplayResponse cancelReplay(UUID replayId);
+}
@@ -1,7 +1,15 @@
 package com.example.emailnotification.service;
 
 import com.example.emailnotification.dto.response.EmailStatisticsResponse;
+import com.example.emailnotification.dto.response.TemplateVersionStatsResponse;
+
+import java.util.List;
+import java.util.UUID;
 
 public interface ReportService {
-    EmailStatisticsResponse getStatistics();
+    // Answered from the daily rollup; one template's emails when templateId is set
+    EmailStatisticsResponse getStatistics(UUID templateId);
+
+    // All templates when templateId is null
+    List<TemplateVersionStatsResponse> getTemplateVersionStats(UUID templateId);
 }
@@ -0,0 +1,48 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-lane delivery latency: time from accepting an email (or from its scheduled time) to
+ * the provider accepting it, published as {@code email.delivery.latency{priority=...}} with
+ * p50/p99 and an SLO bucket per lane, so each lane can be alerted on separately.
+ */
+@Component
+public class DeliveryMetrics {
+
+    private final Map<EmailPriority, Timer> latency = new EnumMap<>(EmailPriority.class);
+
+    public DeliveryMetrics(MeterRegistry meterRegistry,
+                           @Value("${email.slo.high-ms:5000}") long highSloMs,
+                           @Value("${email.slo.normal-ms:60000}") long normalSloMs,
+                           @Value("${email.slo.low-ms:3600000}") long lowSloMs) {
+        register(meterRegistry, EmailPriority.HIGH, highSloMs);
+        register(meterRegistry, EmailPriority.NORMAL, normalSloMs);
+        register(meterRegistry, EmailPriority.LOW, lowSloMs);
+    }
+
+    public void recordSent(Email email) {
+        LocalDateTime start = email.getScheduledAt() != null ? email.getScheduledAt() : email.getCreatedAt();
+        if (start == null || email.getSentAt() == null) return;
+        latency.get(email.getPriority()).record(Duration.between(start, email.getSentAt()));
+    }
+
+    private void register(MeterRegistry meterRegistry, EmailPriority lane, long sloMs) {
+        latency.put(lane, Timer.builder("email.delivery.latency")
+                .description("Time from accepting an email to the provider accepting it")
+                .tag("priority", lane.name())
+                .publishPercentiles(0.5, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(sloMs))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.StatusCount;
+import com.example.emailnotification.service.QueueService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Transactional writes of new emails and bulk status moves. The idempotency key and outbox
+ * rows go into the same transaction, so an email is never stored without its queue message
+ * or vice versa; each write reports to the statistics rollup once it commits.
+ *
+ * <p>New emails must already point at their stored body — {@link EmailBodyStore#store} runs
+ * its own transaction and is called before these, so a request never holds two connections.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailBatchWriter {
+
+    private final EmailRepository emailRepository;
+    private final EntityManager entityManager;
+    private final QueueService queueService;
+    private final IdempotencyStore idempotencyStore;
+    private final StatsRollup statsRollup;
+
+    /**
+     * Inserts one email, claiming {@code idempotencyKey} if given and adding it to the
+     * outbox if {@code enqueue} is set.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the key is taken
+     */
+    @Transactional
+    public Email persist(Email email, String idempotencyKey, boolean enqueue) {
+        Email saved = emailRepository.save(email);
+        if (idempotencyKey != null) {
+            idempotencyStore.claim(idempotencyKey, saved.getId());
+        }
+        if (enqueue) {
+            queueService.pushToQueue(saved.getId(), saved.getPriority());
+        }
+        statsRollup.created(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Inserts one chunk in a single transaction, with one outbox message per
+     * {@code publishSize} emails — none for a SCHEDULED chunk, the dispatcher releases those.
+     * Flushing and clearing afterwards sends the pending inserts as JDBC batches and keeps
+     * the persistence context from growing across chunks.
+     */
+    @Transactional
+    public List<Email> persistChunk(List<Email> chunk, int publishSize) {
+        List<Email> saved = emailRepository.saveAll(chunk);
+        List<UUID> ids = saved.stream().map(Email::getId).toList();
+        int publishFrom = saved.get(0).getStatus() == EmailStatus.SCHEDULED ? ids.size() : 0;
+        for (int from = publishFrom; from < ids.size(); from += publishSize) {
+            queueService.pushBatchToQueue(saved.get(0).getBatchId(), saved.get(0).getPriority(),
+                    List.copyOf(ids.subList(from, Math.min(from + publishSize, ids.size()))));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statsRollup.created(saved);
+        return saved;
+    }
+
+    /**
+     * Moves due scheduled emails to QUEUED and adds them to the outbox of their lane. Emails
+     * another dispatcher already released (or that are no longer SCHEDULED) are skipped.
+     *
+     * @return how many emails were released
+     */
+    @Transactional
+    public int releaseScheduled(List<UUID> ids, EmailPriority lane) {
+        return requeue(ids, EnumSet.of(EmailStatus.SCHEDULED), lane);
+    }
+
+    /**
+     * Moves emails that are still in one of {@code from} back to QUEUED and adds them to the
+     * outbox of their lane — used for scheduled releases and operator replays alike.
+     *
+     * @return how many emails were requeued
+     */
+    @Transactional
+    public int requeue(List<UUID> ids, Set<EmailStatus> from, EmailPriority lane) {
+        List<UUID> claimed = emailRepository.lockInStatus(ids, from);
+        if (claimed.isEmpty()) return 0;
+        List<StatusCount> moved = emailRepository.countForStats(claimed);
+        emailRepository.markQueued(claimed);
+        queueService.pushBatchToQueue(null, lane, claimed);
+        statsRollup.moved(moved, EmailStatus.QUEUED);
+        return claimed.size();
+    }
+
+    /**
+     * Marks the emails that are still QUEUED as PARKED with {@code reason}; sent or failed
+     * ones keep their outcome.
+     *
+     * @return how many emails were parked
+     */
+    @Transactional
+    public int park(List<UUID> ids, String reason) {
+        List<UUID> claimed = emailRepository.lockInStatus(ids, EnumSet.of(EmailStatus.QUEUED));
+        if (claimed.isEmpty()) return 0;
+        List<StatusCount> moved = emailRepository.countForStats(claimed);
+        int parked = emailRepository.markParked(claimed, reason);
+        statsRollup.moved(moved, EmailStatus.PARKED);
+        return parked;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.EmailBody;
+import com.example.emailnotification.repository.EmailBodyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-addressed storage of email bodies. {@link #store} points each new email at the
+ * {@link EmailBody} of its content and inserts only bodies that are not stored yet — a
+ * broadcast to 100k recipients writes its body once. Hashes this node stored or saw
+ * recently are remembered, so repeats of a body skip even the existence check.
+ *
+ * <p>Bodies are inserted in their own transaction: a body committed for an email whose
+ * transaction then rolls back is merely unreferenced, and two nodes inserting the same new
+ * body at once collide on the key instead of failing each other's email inserts.
+ */
+@Component
+@Slf4j
+public class EmailBodyStore {
+
+    private final EmailBodyRepository bodyRepository;
+    private final TransactionTemplate insertTransaction;
+    private final Set<String> recent;
+
+    public EmailBodyStore(EmailBodyRepository bodyRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${email.body-store.recent-size:10000}") int recentSize) {
+        this.bodyRepository = bodyRepository;
+        this.insertTransaction = new TransactionTemplate(transactionManager);
+        this.insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Map<String, Boolean> lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentSize;
+            }
+        };
+        this.recent = Collections.newSetFromMap(lru);
+    }
+
+    /**
+     * Sets {@code bodyHash} on each email and makes sure its body is stored. Call before the
+     * emails are inserted and outside their transaction — inside one, the insert here would
+     * wait for a second connection while the first is held.
+     */
+    public void store(Collection<Email> emails) {
+        Map<String, String> missing = new HashMap<>();
+        synchronized (recent) {
+            for (Email email : emails) {
+                String hash = EmailBody.hash(email.getBody());
+                email.setBodyHash(hash);
+                if (!recent.contains(hash)) missing.putIfAbsent(hash, email.getBody());
+            }
+        }
+        if (missing.isEmpty()) return;
+
+        Set<String> checked = new HashSet<>(missing.keySet());
+        bodyRepository.findExistingHashes(checked).forEach(missing::remove);
+        if (!missing.isEmpty()) {
+            insert(missing);
+        }
+        remember(checked);
+    }
+
+    private void insert(Map<String, String> bodies) {
+        List<EmailBody> rows = new ArrayList<>(bodies.size());
+        bodies.forEach((hash, content) -> rows.add(EmailBody.of(hash, content)));
+        try {
+            insertTransaction.executeWithoutResult(status -> bodyRepository.saveAll(rows));
+        } catch (DataIntegrityViolationException e) {
+            // Another writer stored some of them first — insert the rest one at a time
+            log.debug("Concurrent insert of {} email bodies, retrying individually", rows.size());
+            for (Map.Entry<String, String> body : bodies.entrySet()) {
+                try {
+                    insertTransaction.executeWithoutResult(status ->
+                            bodyRepository.save(EmailBody.of(body.getKey(), body.getValue())));
+                } catch (DataIntegrityViolationException duplicate) {
+                    // Stored by the other writer, which is all we need
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills in {@code body} on loaded emails from their {@code bodyHash}, reading each
+     * distinct body once.
+     */
+    public void resolve(Collection<Email> emails) {
+        Set<String> hashes = new HashSet<>();
+        for (Email email : emails) {
+            if (email.getBody() == null && email.getBodyHash() != null) hashes.add(email.getBodyHash());
+        }
+        if (hashes.isEmpty()) return;
+
+        Map<String, String> contents = new HashMap<>();
+        for (EmailBody body : bodyRepository.findAllById(hashes)) {
+            contents.put(body.getHash(), body.getContent());
+        }
+        for (Email email : emails) {
+            if (email.getBody() == null && email.getBodyHash() != null) {
+                email.setBody(contents.get(email.getBodyHash()));
+            }
+        }
+        remember(contents.keySet());
+    }
+
+    private void remember(Collection<String> hashes) {
+        synchronized (recent) {
+            recent.addAll(hashes);
+        }
+    }
+}
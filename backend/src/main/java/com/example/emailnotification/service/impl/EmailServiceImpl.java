@@ -1,18 +1,41 @@
 package com.example.emailnotification.service.impl;
 
+import com.example.emailnotification.dto.request.BatchRecipient;
+import com.example.emailnotification.dto.request.BatchSendEmailRequest;
+import com.example.emailnotification.dto.request.EmailListRequest;
 import com.example.emailnotification.dto.request.SendEmailRequest;
+import com.example.emailnotification.dto.response.BatchEmailResponse;
+import com.example.emailnotification.dto.response.EmailPageResponse;
+import com.example.emailnotification.dto.response.EmailSummaryResponse;
 import com.example.emailnotification.dto.response.EmailResponse;
 import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
 import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.exception.DeliveryDeferredException;
+import com.example.emailnotification.exception.TemplateRenderException;
 import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.EmailSummary;
+import com.example.emailnotification.service.BatchSendResult;
+import com.example.emailnotification.service.EmailSender;
 import com.example.emailnotification.service.EmailService;
+import com.example.emailnotification.service.QueueService;
+import com.example.emailnotification.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -20,86 +43,422 @@ import java.util.UUID;
 public class EmailServiceImpl implements EmailService {
 
     private final EmailRepository emailRepository;
-    private final SendGridEmailSender emailSender;
+    private final EmailSender emailSender;
+    private final QueueService queueService;
+    private final EmailBatchWriter batchWriter;
+    private final RetryScheduler retryScheduler;
+    private final IdempotencyStore idempotencyStore;
+    private final StatusWriteBuffer statusBuffer;
+    private final TemplateRenderer templateRenderer;
+    private final DeliveryMetrics deliveryMetrics;
+    private final ScheduledDispatcher scheduledDispatcher;
+    private final EmailBodyStore bodyStore;
+    private final StatsRollup statsRollup;
+
+    // true → persist + enqueue and let EmailQueueListener deliver; false → deliver inside the request
+    @Value("${email.delivery.async:false}")
+    private boolean asyncDelivery;
+
+    @Value("${email.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${email.batch.publish-size:100}")
+    private int batchPublishSize;
 
     @Override
     public EmailResponse sendEmail(SendEmailRequest request) {
+        String key = StringUtils.hasText(request.getIdempotencyKey()) ? request.getIdempotencyKey() : null;
+        if (key != null) {
+            EmailResponse previous = idempotencyStore.findRecent(key);
+            if (previous != null) {
+                log.info("Idempotency-Key {} repeated, returning original response", key);
+                return previous;
+            }
+        }
 
         // 1. Persist first so we get the generated UUID
+        LocalDateTime now = LocalDateTime.now();
+        boolean scheduled = isFuture(request.getScheduledAt(), now);
+        UUID templateId = parseTemplateId(request.getTemplateId());
+        String subject = request.getSubject();
+        String body = request.getBody();
+        TemplateRenderer.Compiled template = findTemplate(templateId, request.getTemplateId(),
+                !StringUtils.hasText(subject) || !StringUtils.hasText(body));
+        // Only an email whose content came from the template records its version
+        String templateVersion = null;
+        if (template != null && (!StringUtils.hasText(subject) || !StringUtils.hasText(body))) {
+            if (!StringUtils.hasText(subject)) subject = template.renderSubject(request.getVariables());
+            if (!StringUtils.hasText(body)) body = template.renderBody(request.getVariables());
+            templateVersion = template.version();
+        }
         Email email = Email.builder()
                 .recipientEmail(request.getRecipient())
-                .subject(request.getSubject())
-                .body(request.getBody())
-                .status(EmailStatus.QUEUED)
+                .subject(subject)
+                .body(body)
+                .status(scheduled ? EmailStatus.SCHEDULED : EmailStatus.QUEUED)
+                .priority(resolvePriority(request.getPriority(), template, EmailPriority.NORMAL))
+                .templateId(templateId)
+                .templateVersion(templateVersion)
+                .scheduledAt(scheduled ? request.getScheduledAt() : null)
                 .retryCount(0)
-                .createdAt(LocalDateTime.now())
+                .createdAt(now)
                 .build();
 
-        Email saved = emailRepository.save(email);   // UUID is assigned here
+        // Async mode writes the outbox row in the same transaction as the email
+        boolean enqueue = asyncDelivery && !scheduled;
+        bodyStore.store(List.of(email));
+        Email saved;
+        try {
+            saved = batchWriter.persist(email, key, enqueue);   // UUID is assigned here
+        } catch (DataIntegrityViolationException e) {
+            if (key == null || !idempotencyStore.isKeyTaken(e)) throw e;
+            EmailResponse previous = idempotencyStore.findStored(key);
+            if (previous != null) {
+                log.info("Idempotency-Key {} already used, returning original response", key);
+                return previous;
+            }
+            // The stored key had expired and was removed — claim it afresh
+            email.setId(null);
+            saved = batchWriter.persist(email, key, enqueue);
+        }
         log.info("Email saved id={} to={}", saved.getId(), saved.getRecipientEmail());
 
-        // 2. Send immediately — update status based on result
-        try {
-            emailSender.sendEmail(
-                    saved.getRecipientEmail(),
-                    saved.getSubject(),
-                    saved.getBody()
-            );
-            saved.setStatus(EmailStatus.SENT);
-            saved.setSentAt(LocalDateTime.now());
-            log.info("Email sent successfully id={}", saved.getId());
-        } catch (Exception e) {
-            saved.setStatus(EmailStatus.FAILED);
-            saved.setErrorMessage(e.getMessage());
-            log.error("Email failed id={} error={}", saved.getId(), e.getMessage());
+        EmailResponse response = dispatch(saved);
+        if (key != null) {
+            idempotencyStore.complete(key, response);
+        }
+        return response;
+    }
+
+    private EmailResponse dispatch(Email saved) {
+        // Future-dated — the dispatcher releases it to the queue when it is due
+        if (saved.getStatus() == EmailStatus.SCHEDULED) {
+            scheduledDispatcher.schedule(saved);
+            return EmailResponse.builder()
+                    .id(saved.getId())
+                    .status(EmailStatus.SCHEDULED.name())
+                    .message("Email scheduled for " + saved.getScheduledAt())
+                    .build();
+        }
+
+        // 2a. Async mode — already in the outbox for the queue consumer, return straight away
+        if (asyncDelivery) {
+            return EmailResponse.builder()
+                    .id(saved.getId())
+                    .status(EmailStatus.QUEUED.name())
+                    .message("Email queued successfully")
+                    .build();
         }
 
+        // 2b. Send immediately — update status based on result
+        EmailStatus previous = saved.getStatus();
+        boolean attempted = attemptDelivery(saved);
         emailRepository.save(saved);
+        statsRollup.transitioned(saved, previous);
+        retryScheduler.schedule(saved);
+
+        if (!attempted) {
+            queueService.pushToQueue(saved.getId(), saved.getPriority());
+            return EmailResponse.builder()
+                    .id(saved.getId())
+                    .status(EmailStatus.QUEUED.name())
+                    .message("Provider is busy — email queued for delivery")
+                    .build();
+        }
 
         return EmailResponse.builder()
                 .id(saved.getId())
                 .status(saved.getStatus().name())
                 .message(saved.getStatus() == EmailStatus.SENT
                         ? "Email sent successfully!"
-                        : "Email failed: " + saved.getErrorMessage())
+                        : "Email failed: " + saved.getErrorMessage() + retryNote(saved))
+                .build();
+    }
+
+    @Override
+    public BatchEmailResponse sendBatch(BatchSendEmailRequest request) {
+        UUID batchId = UUID.randomUUID();
+        List<BatchRecipient> recipients = request.getRecipients();
+        List<UUID> emailIds = new ArrayList<>(recipients.size());
+        LocalDateTime now = LocalDateTime.now();
+        UUID templateId = parseTemplateId(request.getTemplateId());
+        boolean contentMissing = recipients.stream().anyMatch(r ->
+                !StringUtils.hasText(r.getSubject() != null ? r.getSubject() : request.getSubject())
+                        || !StringUtils.hasText(r.getBody() != null ? r.getBody() : request.getBody()));
+        TemplateRenderer.Compiled template = findTemplate(templateId, request.getTemplateId(), contentMissing);
+        EmailPriority priority = resolvePriority(request.getPriority(), template, EmailPriority.LOW);
+        boolean scheduled = isFuture(request.getScheduledAt(), now);
+
+        // Persist in chunks — each chunk is one transaction of JDBC-batched inserts plus
+        // its outbox messages, one per publish-size ids
+        for (int from = 0; from < recipients.size(); from += batchChunkSize) {
+            List<BatchRecipient> slice = recipients.subList(from, Math.min(from + batchChunkSize, recipients.size()));
+            List<Email> chunk = new ArrayList<>(slice.size());
+            for (BatchRecipient r : slice) {
+                String subject = r.getSubject() != null ? r.getSubject() : request.getSubject();
+                String body = r.getBody() != null ? r.getBody() : request.getBody();
+                String templateVersion = null;
+                if (template != null && (!StringUtils.hasText(subject) || !StringUtils.hasText(body))) {
+                    Map<String, Object> variables = mergeVariables(request.getVariables(), r.getVariables());
+                    if (!StringUtils.hasText(subject)) subject = template.renderSubject(variables);
+                    if (!StringUtils.hasText(body)) body = template.renderBody(variables);
+                    templateVersion = template.version();
+                }
+                chunk.add(Email.builder()
+                        .recipientEmail(r.getRecipient())
+                        .subject(subject)
+                        .body(body)
+                        .status(scheduled ? EmailStatus.SCHEDULED : EmailStatus.QUEUED)
+                        .priority(priority)
+                        .templateId(templateId)
+                        .templateVersion(templateVersion)
+                        .scheduledAt(scheduled ? request.getScheduledAt() : null)
+                        .retryCount(0)
+                        .createdAt(now)
+                        .batchId(batchId)
+                        .build());
+            }
+            bodyStore.store(chunk);
+            for (Email saved : batchWriter.persistChunk(chunk, batchPublishSize)) {
+                emailIds.add(saved.getId());
+                if (scheduled) scheduledDispatcher.schedule(saved);
+            }
+        }
+        log.info("Batch {} saved {} emails", batchId, emailIds.size());
+
+        return BatchEmailResponse.builder()
+                .batchId(batchId)
+                .status(scheduled ? EmailStatus.SCHEDULED.name() : EmailStatus.QUEUED.name())
+                .count(emailIds.size())
+                .emailIds(emailIds)
+                .message(scheduled ? "Batch scheduled for " + request.getScheduledAt() : "Batch queued successfully")
                 .build();
     }
 
     @Override
     public EmailResponse retryEmail(UUID id) {
         Email email = emailRepository.findById(id).orElseThrow();
+        bodyStore.resolve(List.of(email));
         email.setRetryCount(email.getRetryCount() + 1);
         email.setErrorMessage(null);
 
-        try {
-            emailSender.sendEmail(
-                    email.getRecipientEmail(),
-                    email.getSubject(),
-                    email.getBody()
-            );
-            email.setStatus(EmailStatus.SENT);
-            email.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            email.setStatus(EmailStatus.FAILED);
-            email.setErrorMessage(e.getMessage());
-        }
-
+        EmailStatus previous = email.getStatus();
+        boolean attempted = attemptDelivery(email);
         emailRepository.save(email);
+        statsRollup.transitioned(email, previous);
+        retryScheduler.schedule(email);
+
+        if (!attempted) {
+            queueService.pushToQueue(id, email.getPriority());
+            return EmailResponse.builder()
+                    .id(id)
+                    .status(EmailStatus.QUEUED.name())
+                    .message("Provider is busy — retry queued")
+                    .build();
+        }
 
         return EmailResponse.builder()
                 .id(id)
                 .status(email.getStatus().name())
-                .message(email.getStatus() == EmailStatus.SENT ? "Retry succeeded!" : "Retry failed: " + email.getErrorMessage())
+                .message(email.getStatus() == EmailStatus.SENT ? "Retry succeeded!" : "Retry failed: " + email.getErrorMessage() + retryNote(email))
                 .build();
     }
 
+    private record HeldGroup(UUID batchId, EmailPriority lane) {}
+
+    @Override
+    public CompletableFuture<Void> deliverBatch(List<UUID> ids) {
+        List<Email> pending = emailRepository.findAllById(ids).stream()
+                .filter(this::isDue)
+                .toList();
+        if (pending.isEmpty()) return CompletableFuture.completedFuture(null);
+        // A campaign batch shares one body, so this is usually a single-row read
+        bodyStore.resolve(pending);
+        pending.forEach(this::prepareAttempt);
+        Map<UUID, EmailStatus> previous = new HashMap<>();
+        pending.forEach(email -> previous.put(email.getId(), email.getStatus()));
+
+        // One provider call per group of identical content instead of one per email
+        BatchSendResult result = emailSender.sendBatch(pending);
+        LocalDateTime now = LocalDateTime.now();
+        // One listener delivery can mix messages of several batches; each keeps its own id
+        Map<HeldGroup, List<UUID>> held = new LinkedHashMap<>();
+        for (Email email : pending) {
+            if (result.getDeferred().contains(email.getId())) {
+                email.setStatus(EmailStatus.QUEUED);
+                held.computeIfAbsent(new HeldGroup(email.getBatchId(), email.getPriority()), g -> new ArrayList<>())
+                        .add(email.getId());
+                continue;
+            }
+            if (result.isAccepted(email.getId())) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(now);
+                String messageId = result.getMessageIds().get(email.getId());
+                if (messageId != null) email.setProviderMessageId(messageId);
+                deliveryMetrics.recordSent(email);
+            } else {
+                Exception error = result.getFailures().get(email.getId());
+                email.setStatus(EmailStatus.FAILED);
+                email.setErrorMessage(error.getMessage());
+                retryScheduler.planRetry(email, error);
+            }
+        }
+        // Outcomes join the write-behind buffer instead of one UPDATE per email
+        CompletableFuture<Void> written = statusBuffer.submit(pending);
+        // Counted once the buffer has committed the outcomes
+        written.thenRun(() -> pending.forEach(email -> statsRollup.transitioned(email, previous.get(email.getId()))));
+        pending.forEach(retryScheduler::schedule);
+        // Throttled emails stay QUEUED and go back on their lane instead of failing
+        held.forEach((group, groupIds) -> queueService.pushBatchToQueue(group.batchId(), group.lane(), groupIds));
+        log.info("Delivered batch of {} emails, {} failed, {} held", pending.size(),
+                result.getFailures().size(), held.values().stream().mapToInt(List::size).sum());
+        return written;
+    }
+
     @Override
     public Email getEmailById(UUID id) {
-        return emailRepository.findById(id).orElseThrow();
+        Email email = emailRepository.findById(id).orElseThrow();
+        bodyStore.resolve(List.of(email));
+        return email;
     }
 
     @Override
-    public List<Email> getAllEmails() {
-        return emailRepository.findAll();
+    public EmailPageResponse listEmails(EmailListRequest request) {
+        KeysetCursor after = StringUtils.hasText(request.getCursor()) ? KeysetCursor.decode(request.getCursor()) : null;
+        String recipient = StringUtils.hasText(request.getRecipient()) ? escapeLike(request.getRecipient().strip()) : null;
+        // One row past the page tells whether there is a next one
+        List<EmailSummary> rows = emailRepository.findPage(request.getStatus(), recipient,
+                request.getFrom(), request.getTo(),
+                after != null ? after.createdAt() : null, after != null ? after.id() : null,
+                PageRequest.of(0, request.getLimit() + 1));
+
+        boolean more = rows.size() > request.getLimit();
+        List<EmailSummary> page = more ? rows.subList(0, request.getLimit()) : rows;
+        EmailSummary last = more ? page.get(page.size() - 1) : null;
+        return EmailPageResponse.builder()
+                .items(page.stream().map(EmailServiceImpl::toSummary).toList())
+                .nextCursor(last != null ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
+    private static EmailSummaryResponse toSummary(EmailSummary row) {
+        return EmailSummaryResponse.builder()
+                .id(row.getId())
+                .recipientEmail(row.getRecipientEmail())
+                .subject(row.getSubject())
+                .status(row.getStatus() != null ? row.getStatus().name() : null)
+                .priority(row.getPriority() != null ? row.getPriority().name() : null)
+                .retryCount(row.getRetryCount())
+                .errorMessage(row.getErrorMessage())
+                .createdAt(row.getCreatedAt())
+                .sentAt(row.getSentAt())
+                .scheduledAt(row.getScheduledAt())
+                .batchId(row.getBatchId())
+                .templateId(row.getTemplateId())
+                .build();
+    }
+
+    // The recipient filter is a prefix match; '!' is the query's LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    // Whether a queue message for this email should trigger a send now
+    private boolean isDue(Email email) {
+        return switch (email.getStatus()) {
+            // RabbitMQ is at-least-once — a redelivered message must not send twice
+            case SENT -> false;
+            // Not released yet; the dispatcher queues it when it is due
+            case SCHEDULED -> false;
+            // Only an automatic retry whose time has come; stale wheel entries are ignored
+            case FAILED -> email.getNextAttemptAt() != null
+                    && !email.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(1));
+            default -> true;
+        };
+    }
+
+    private static boolean isFuture(LocalDateTime scheduledAt, LocalDateTime now) {
+        return scheduledAt != null && scheduledAt.isAfter(now);
+    }
+
+    // Request choice first, then the template's default, then the caller's lane
+    private static EmailPriority resolvePriority(EmailPriority requested, TemplateRenderer.Compiled template,
+                                                 EmailPriority fallback) {
+        if (requested != null) return requested;
+        if (template != null && template.template().getDefaultPriority() != null) {
+            return template.template().getDefaultPriority();
+        }
+        return fallback;
+    }
+
+    // The request's template, or null when it has none; required when it must supply content
+    private TemplateRenderer.Compiled findTemplate(UUID templateId, String requested, boolean required) {
+        TemplateRenderer.Compiled template = templateId != null ? templateRenderer.find(templateId).orElse(null) : null;
+        if (template == null && required) {
+            throw new TemplateRenderException("Template not found: " + requested);
+        }
+        return template;
+    }
+
+    private static Map<String, Object> mergeVariables(Map<String, Object> shared, Map<String, Object> own) {
+        if (own == null || own.isEmpty()) return shared;
+        if (shared == null || shared.isEmpty()) return own;
+        Map<String, Object> merged = new HashMap<>(shared);
+        merged.putAll(own);
+        return merged;
+    }
+
+    private static UUID parseTemplateId(String templateId) {
+        if (!StringUtils.hasText(templateId)) return null;
+        try {
+            return UUID.fromString(templateId);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed templateId {}", templateId);
+            return null;
+        }
+    }
+
+    private void prepareAttempt(Email email) {
+        if (email.getStatus() == EmailStatus.FAILED) {
+            email.setRetryCount(email.getRetryCount() + 1);
+        }
+        email.setNextAttemptAt(null);
+    }
+
+    private static String retryNote(Email email) {
+        return email.getNextAttemptAt() == null ? "" : " (retry scheduled at " + email.getNextAttemptAt() + ")";
+    }
+
+    /**
+     * Sends the email and records SENT/FAILED on it; transient failures get an automatic
+     * retry planned in {@code nextAttemptAt}, which the caller hands to the scheduler after saving.
+     *
+     * @return false if the send was held back (e.g. throttled) — the email is left QUEUED
+     *         and the caller must put it back on the queue after saving
+     */
+    private boolean attemptDelivery(Email email) {
+        email.setNextAttemptAt(null);
+        try {
+            String messageId = emailSender.sendEmail(
+                    email.getRecipientEmail(),
+                    email.getSubject(),
+                    email.getBody()
+            );
+            if (messageId != null) email.setProviderMessageId(messageId);
+            email.setStatus(EmailStatus.SENT);
+            email.setSentAt(LocalDateTime.now());
+            deliveryMetrics.recordSent(email);
+            log.info("Email sent successfully id={}", email.getId());
+        } catch (DeliveryDeferredException e) {
+            email.setStatus(EmailStatus.QUEUED);
+            log.warn("Email held id={} reason={}", email.getId(), e.getMessage());
+            return false;
+        } catch (Exception e) {
+            email.setStatus(EmailStatus.FAILED);
+            email.setErrorMessage(e.getMessage());
+            retryScheduler.planRetry(email, e);
+            log.error("Email failed id={} error={}", email.getId(), e.getMessage());
+        }
+        return true;
     }
 }
@@ -0,0 +1,324 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.dto.request.EmailExportRequest;
+import com.example.emailnotification.enums.ExportFormat;
+import com.example.emailnotification.exception.ExportBusyException;
+import com.example.emailnotification.service.ExportService;
+import com.example.emailnotification.util.CsvWriter;
+import com.example.emailnotification.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams emails matching the listing filters, oldest first, as NDJSON or CSV. Rows go
+ * from a forward-only, read-only result set straight to the response — on MySQL with the
+ * driver's row streaming — so memory use does not depend on how many rows match.
+ *
+ * <p>An export of the whole table must not hold anything live traffic needs: it reads in
+ * segments of {@code segment-rows}, each one statement resumed from the last row's
+ * (created_at, id) through the listing's keyset indexes. Between segments the connection
+ * goes back to the pool, and no read view stays open long enough to hold back purge.
+ * At most {@code max-concurrent} exports run at a time; further ones are refused.
+ */
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private static final String COLUMNS = "e.id, e.recipient_email, e.subject, e.status, e.priority, "
+            + "e.retry_count, e.error_message, e.created_at, e.sent_at, e.scheduled_at, e.batch_id, "
+            + "e.template_id, e.template_version, e.provider_message_id";
+
+    // Output names of COLUMNS, in order, and of the optional body
+    private static final String[] FIELDS = {"id", "recipientEmail", "subject", "status", "priority",
+            "retryCount", "errorMessage", "createdAt", "sentAt", "scheduledAt", "batchId",
+            "templateId", "templateVersion", "providerMessageId"};
+    private static final String BODY = "body";
+
+    private enum Kind { TEXT, UUID, TIMESTAMP, NUMBER }
+
+    private static final Kind[] KINDS = {Kind.UUID, Kind.TEXT, Kind.TEXT, Kind.TEXT, Kind.TEXT,
+            Kind.NUMBER, Kind.TEXT, Kind.TIMESTAMP, Kind.TIMESTAMP, Kind.TIMESTAMP, Kind.UUID,
+            Kind.UUID, Kind.TEXT, Kind.TEXT};
+
+    private static final int CREATED_AT = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final int segmentRows;
+    private final int fetchSize;
+
+    public ExportServiceImpl(JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${email.export.max-concurrent:2}") int maxConcurrent,
+                             @Value("${email.export.segment-rows:50000}") int segmentRows,
+                             @Value("${email.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(maxConcurrent);
+        this.segmentRows = segmentRows;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public EmailExport exportEmails(EmailExportRequest request) {
+        if (!slots.tryAcquire()) {
+            throw new ExportBusyException("Too many exports running, try again later");
+        }
+        return out -> {
+            try {
+                write(request, out);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    private void write(EmailExportRequest request, OutputStream response) throws IOException {
+        long start = System.nanoTime();
+        OutputStream out = request.isGzip()
+                ? new GZIPOutputStream(response, 64 * 1024, true)
+                : new BufferedOutputStream(response, 64 * 1024);
+        RowWriter writer = request.getFormat() == ExportFormat.CSV
+                ? new CsvRowWriter(out, request.isIncludeBody())
+                : new JsonRowWriter(objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8),
+                        request.isIncludeBody());
+
+        long rows = 0;
+        try {
+            writer.begin();
+            KeysetCursor after = null;
+            while (true) {
+                Segment segment = readSegment(request, after, writer);
+                rows += segment.rows;
+                // Let the client see each segment as soon as it is read
+                writer.flush();
+                if (segment.rows < segmentRows || segment.last == null) break;
+                after = segment.last;
+            }
+            writer.end();
+        } catch (UncheckedIOException e) {
+            // The client went away mid-segment
+            log.info("Email export aborted after {} rows: {}", rows, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported {} emails as {}{} in {} ms", rows, request.getFormat(),
+                request.isGzip() ? " (gzip)" : "", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static final class Segment {
+        long rows;
+        KeysetCursor last;
+    }
+
+    private Segment readSegment(EmailExportRequest request, KeysetCursor after, RowWriter writer) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS);
+        if (request.isIncludeBody()) sql.append(", b.content");
+        sql.append(" FROM emails e");
+        if (request.isIncludeBody()) sql.append(" LEFT JOIN email_bodies b ON b.hash = e.body_hash");
+        sql.append(" WHERE 1 = 1");
+
+        List<Object> args = new ArrayList<>();
+        if (request.getStatus() != null) {
+            sql.append(" AND e.status = ?");
+            args.add(request.getStatus().name());
+        }
+        if (StringUtils.hasText(request.getRecipient())) {
+            sql.append(" AND e.recipient_email LIKE ? ESCAPE '!'");
+            args.add(escapeLike(request.getRecipient().strip()) + "%");
+        }
+        if (request.getFrom() != null) {
+            sql.append(" AND e.created_at >= ?");
+            args.add(Timestamp.valueOf(request.getFrom()));
+        }
+        if (request.getTo() != null) {
+            sql.append(" AND e.created_at < ?");
+            args.add(Timestamp.valueOf(request.getTo()));
+        }
+        if (after != null) {
+            sql.append(" AND (e.created_at > ? OR (e.created_at = ? AND e.id > ?))");
+            Timestamp createdAt = Timestamp.valueOf(after.createdAt());
+            args.add(createdAt);
+            args.add(createdAt);
+            args.add(toBytes(after.id()));
+        }
+        sql.append(" ORDER BY e.created_at, e.id LIMIT ?");
+        args.add(segmentRows);
+
+        Segment segment = new Segment();
+        String[] values = new String[FIELDS.length + 1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL buffers the whole result unless asked to stream it row by row
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            ps.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            return ps;
+        }, (ResultSet rs) -> {
+            for (int i = 0; i < FIELDS.length; i++) {
+                values[i] = read(rs, i + 1, KINDS[i]);
+            }
+            if (request.isIncludeBody()) values[FIELDS.length] = rs.getString(FIELDS.length + 1);
+            try {
+                writer.row(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segment.rows++;
+            Timestamp createdAt = rs.getTimestamp(CREATED_AT + 1);
+            if (createdAt != null) {
+                segment.last = new KeysetCursor(createdAt.toLocalDateTime(), UUID.fromString(values[0]));
+            }
+        });
+        return segment;
+    }
+
+    private static String read(ResultSet rs, int column, Kind kind) throws SQLException {
+        return switch (kind) {
+            case UUID -> {
+                byte[] bytes = rs.getBytes(column);
+                yield bytes != null ? fromBytes(bytes).toString() : null;
+            }
+            case TIMESTAMP -> {
+                Timestamp timestamp = rs.getTimestamp(column);
+                yield timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+            }
+            case TEXT, NUMBER -> rs.getString(column);
+        };
+    }
+
+    // The recipient filter is a prefix match; '!' is the query's LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    // emails.id is BINARY(16), most significant bits first — the layout Hibernate writes
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void row(String[] values) throws IOException;
+
+        void flush() throws IOException;
+
+        // Finishes the output, including the gzip trailer
+        void end() throws IOException;
+    }
+
+    // One JSON object per line, null fields omitted
+    private static final class JsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+        private final boolean includeBody;
+
+        JsonRowWriter(JsonGenerator json, boolean includeBody) {
+            this.json = json;
+            // Lines are separated by '\n' below, not by the default root separator
+            this.json.setRootValueSeparator(null);
+            this.includeBody = includeBody;
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void row(String[] values) throws IOException {
+            json.writeStartObject();
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (values[i] == null) continue;
+                if (KINDS[i] == Kind.NUMBER) {
+                    json.writeNumberField(FIELDS[i], Long.parseLong(values[i]));
+                } else {
+                    json.writeStringField(FIELDS[i], values[i]);
+                }
+            }
+            if (includeBody && values[FIELDS.length] != null) json.writeStringField(BODY, values[FIELDS.length]);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void end() throws IOException {
+            json.close();
+        }
+    }
+
+    // Header row first, then one record per email
+    private static final class CsvRowWriter implements RowWriter {
+        private final BufferedWriter out;
+        private final CsvWriter csv;
+        private final boolean includeBody;
+
+        CsvRowWriter(OutputStream out, boolean includeBody) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.csv = new CsvWriter(this.out);
+            this.includeBody = includeBody;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            for (String field : FIELDS) csv.field(field);
+            if (includeBody) csv.field(BODY);
+            csv.endRecord();
+        }
+
+        @Override
+        public void row(String[] values) throws IOException {
+            for (int i = 0; i < FIELDS.length; i++) csv.field(values[i]);
+            if (includeBody) csv.field(values[FIELDS.length]);
+            csv.endRecord();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.close();
+        }
+    }
+}
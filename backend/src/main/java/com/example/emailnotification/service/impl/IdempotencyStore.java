@@ -0,0 +1,147 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.dto.response.EmailResponse;
+import com.example.emailnotification.entity.IdempotencyKey;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Dedupe store for Idempotency-Keys on POST /api/emails/send.
+ *
+ * <p>Repeats are answered from a bounded LRU of recent keys without touching the database.
+ * A key that is not cached is not looked up either: {@link #claim} inserts it in the same
+ * transaction as the email, and the primary key on {@code idempotency_keys} rejects a duplicate. Only then
+ * is the stored response read back, so a first-time key costs no extra round trip.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private record Entry(EmailResponse response, LocalDateTime createdAt) {}
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final Duration ttl;
+    private final Map<String, Entry> recent;
+
+    public IdempotencyStore(IdempotencyKeyRepository keyRepository,
+                            @Value("${email.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${email.idempotency.cache-size:10000}") int cacheSize) {
+        this.keyRepository = keyRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached response for a recently completed key, or null — a miss does not
+     *         mean the key is new, only that {@link #claim} has to decide
+     */
+    public EmailResponse findRecent(String key) {
+        synchronized (recent) {
+            Entry entry = recent.get(key);
+            if (entry == null) return null;
+            if (isExpired(entry.createdAt())) {
+                recent.remove(key);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    /**
+     * Inserts the key for an email being saved in the caller's transaction.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the key already exists
+     */
+    public void claim(String key, UUID emailId) {
+        keyRepository.saveAndFlush(IdempotencyKey.builder()
+                .key(key)
+                .emailId(emailId)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Whether a failed {@link #claim} is the key's primary key rejecting a duplicate. Every
+     * other constraint violation of the same transaction is a real error and must surface.
+     */
+    public boolean isKeyTaken(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // The statement names the table on every database; constraint names do not
+                String sql = violation.getSQL();
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                        && sql != null && sql.toLowerCase(Locale.ROOT).contains("idempotency_keys");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the response stored for a key that {@link #claim} found taken.
+     *
+     * @return null if the stored key has expired — it is deleted and may be claimed again
+     */
+    public EmailResponse findStored(String key) {
+        IdempotencyKey stored = keyRepository.findById(key).orElse(null);
+        if (stored == null) return null;
+        if (isExpired(stored.getCreatedAt())) {
+            keyRepository.delete(stored);
+            return null;
+        }
+        if (stored.getResponseStatus() == null) {
+            // The original request is still running
+            return EmailResponse.builder()
+                    .id(stored.getEmailId())
+                    .status(EmailStatus.QUEUED.name())
+                    .message("A request with this Idempotency-Key is already in progress")
+                    .build();
+        }
+        EmailResponse response = EmailResponse.builder()
+                .id(stored.getEmailId())
+                .status(stored.getResponseStatus())
+                .message(stored.getResponseMessage())
+                .build();
+        remember(key, response, stored.getCreatedAt());
+        return response;
+    }
+
+    // Records the final response so repeats get exactly what the first caller got
+    public void complete(String key, EmailResponse response) {
+        keyRepository.recordResponse(key, response.getStatus(), response.getMessage());
+        remember(key, response, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${email.idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        int removed = keyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (removed > 0) log.info("Purged {} expired idempotency keys", removed);
+    }
+
+    private void remember(String key, EmailResponse response, LocalDateTime createdAt) {
+        synchronized (recent) {
+            recent.put(key, new Entry(response, createdAt));
+        }
+    }
+
+    private boolean isExpired(LocalDateTime createdAt) {
+        return createdAt.plus(ttl).isBefore(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.service.BatchSendResult;
+import com.example.emailnotification.service.EmailSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transport that accepts everything without leaving the JVM — for load tests and local
+ * runs without SendGrid credentials. An optional fixed latency simulates provider I/O.
+ */
+@Service
+@ConditionalOnProperty(name = "email.sender", havingValue = "in-memory")
+@Slf4j
+public class InMemoryEmailSender implements EmailSender {
+
+    @Value("${email.sender.in-memory.latency-ms:0}")
+    private long latencyMs;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong providerCalls = new AtomicLong();
+
+    @Override
+    public String sendEmail(String to, String subject, String body) {
+        simulateLatency();
+        sentCount.incrementAndGet();
+        log.debug("In-memory sender accepted email to={}", to);
+        return null;
+    }
+
+    @Override
+    public BatchSendResult sendBatch(List<Email> emails) {
+        simulateLatency();
+        sentCount.addAndGet(emails.size());
+        return new BatchSendResult();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getProviderCalls() {
+        return providerCalls.get();
+    }
+
+    private void simulateLatency() {
+        providerCalls.incrementAndGet();
+        if (latencyMs <= 0) return;
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.dto.response.MailMergeResponse;
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.enums.MergeFormat;
+import com.example.emailnotification.exception.TemplateRenderException;
+import com.example.emailnotification.service.MailMergeService;
+import com.example.emailnotification.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mail-merge of an uploaded recipient file against a template. The upload is spooled to
+ * a temp file (so the HTTP request can finish), then read back one row at a time: each
+ * row is rendered and added to a chunk, and every full chunk is persisted with its outbox
+ * messages through {@link EmailBatchWriter#persistChunk} — heap use stays at one chunk
+ * however long the file is. Rows without a recipient or with missing variables are
+ * counted as rejected and skipped.
+ *
+ * <p>CSV needs a header row with a {@code recipient} (or {@code email}) column; every other
+ * column is a variable, a dotted header such as {@code customer.name} filling the
+ * placeholder of that name. JSONL lines are objects with {@code recipient} and an optional
+ * {@code variables} object — without one, the other fields are the variables.
+ */
+@Service
+@Slf4j
+public class MailMergeServiceImpl implements MailMergeService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int MAX_REMEMBERED = 100;
+    private static final TypeReference<Map<String, Object>> OBJECT = new TypeReference<>() {};
+
+    private final TemplateRenderer templateRenderer;
+    private final EmailBatchWriter batchWriter;
+    private final EmailBodyStore bodyStore;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int publishSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mail-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Most recent jobs, oldest evicted first
+    private final Map<UUID, Job> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Job> eldest) {
+            return size() > MAX_REMEMBERED;
+        }
+    };
+
+    public MailMergeServiceImpl(TemplateRenderer templateRenderer,
+                                EmailBatchWriter batchWriter,
+                                EmailBodyStore bodyStore,
+                                ObjectMapper objectMapper,
+                                @Value("${email.batch.chunk-size:500}") int chunkSize,
+                                @Value("${email.batch.publish-size:100}") int publishSize) {
+        this.templateRenderer = templateRenderer;
+        this.batchWriter = batchWriter;
+        this.bodyStore = bodyStore;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.publishSize = publishSize;
+    }
+
+    private record Row(long line, String recipient, Map<String, Object> variables) {}
+
+    private static final class Job {
+        final UUID id = UUID.randomUUID();
+        final TemplateRenderer.Compiled template;
+        final MergeFormat format;
+        final Path file;
+        final List<String> errors = new ArrayList<>();
+        volatile String status = "PENDING";
+        volatile long rowsRead;
+        volatile long queued;
+        volatile long rejected;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile String message;
+
+        Job(TemplateRenderer.Compiled template, MergeFormat format, Path file) {
+            this.template = template;
+            this.format = format;
+            this.file = file;
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) errors.add("line " + line + ": " + reason);
+            }
+        }
+
+        MailMergeResponse toResponse() {
+            List<String> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            return MailMergeResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .rowsRead(rowsRead)
+                    .queued(queued)
+                    .rejected(rejected)
+                    .errors(reported)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .message(message)
+                    .build();
+        }
+    }
+
+    @Override
+    public MailMergeResponse startMerge(UUID templateId, MergeFormat format, InputStream recipients) throws IOException {
+        TemplateRenderer.Compiled template = templateRenderer.find(templateId)
+                .orElseThrow(() -> new TemplateRenderException("Template not found: " + templateId));
+
+        Path file = Files.createTempFile("mail-merge-", "." + format.name().toLowerCase(Locale.ROOT));
+        try {
+            Files.copy(recipients, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        // Read before submitting — the job deletes the file when it is done
+        long size = Files.size(file);
+        Job job = new Job(template, format, file);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        executor.execute(() -> run(job));
+        log.info("Mail merge {} submitted: template={} format={} size={} bytes", job.id, templateId, format, size);
+        return job.toResponse();
+    }
+
+    @Override
+    public MailMergeResponse getMerge(UUID jobId) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            if (job == null) throw new NoSuchElementException("Mail merge not found: " + jobId);
+            return job.toResponse();
+        }
+    }
+
+    private void run(Job job) {
+        job.startedAt = LocalDateTime.now();
+        job.status = "RUNNING";
+        try (BufferedReader reader = Files.newBufferedReader(job.file, StandardCharsets.UTF_8)) {
+            List<Email> chunk = new ArrayList<>(chunkSize);
+            if (job.format == MergeFormat.CSV) {
+                readCsv(job, reader, chunk);
+            } else {
+                readJsonLines(job, reader, chunk);
+            }
+            flush(job, chunk);
+            finish(job, "COMPLETED", "Queued " + job.queued + " of " + job.rowsRead + " rows");
+        } catch (IOException | RuntimeException e) {
+            log.error("Mail merge {} failed after {} rows", job.id, job.rowsRead, e);
+            finish(job, "FAILED", e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(job.file);
+            } catch (IOException e) {
+                log.warn("Could not delete mail merge file {}: {}", job.file, e.getMessage());
+            }
+        }
+    }
+
+    private void readCsv(Job job, BufferedReader reader, List<Email> chunk) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        int recipientColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            header.set(i, name);
+            if (recipientColumn < 0 && (name.equalsIgnoreCase("recipient") || name.equalsIgnoreCase("email"))) {
+                recipientColumn = i;
+            }
+        }
+        if (recipientColumn < 0) {
+            throw new IllegalArgumentException("CSV header needs a 'recipient' or 'email' column");
+        }
+
+        while (true) {
+            long line = csv.getLine();
+            List<String> fields = csv.next();
+            if (fields == null) break;
+            if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+            Map<String, Object> variables = new HashMap<>();
+            for (int i = 0; i < Math.min(header.size(), fields.size()); i++) {
+                if (i != recipientColumn) variables.put(header.get(i), fields.get(i));
+            }
+            String recipient = recipientColumn < fields.size() ? fields.get(recipientColumn).strip() : null;
+            add(job, new Row(line, recipient, variables), chunk);
+        }
+    }
+
+    private void readJsonLines(Job job, BufferedReader reader, List<Email> chunk) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+            Map<String, Object> object;
+            try {
+                object = objectMapper.readValue(text, OBJECT);
+            } catch (JsonProcessingException e) {
+                job.rowsRead++;
+                job.reject(line, "not a JSON object");
+                continue;
+            }
+            Object recipient = object.remove("recipient");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> variables = object.get("variables") instanceof Map<?, ?> nested
+                    ? (Map<String, Object>) nested
+                    : object;
+            add(job, new Row(line, recipient != null ? recipient.toString().strip() : null, variables), chunk);
+        }
+    }
+
+    private void add(Job job, Row row, List<Email> chunk) {
+        job.rowsRead++;
+        if (row.recipient() == null || row.recipient().indexOf('@') <= 0) {
+            job.reject(row.line(), "missing or invalid recipient");
+            return;
+        }
+        String subject;
+        String body;
+        try {
+            subject = job.template.renderSubject(row.variables());
+            body = job.template.renderBody(row.variables());
+        } catch (TemplateRenderException e) {
+            job.reject(row.line(), e.getMessage());
+            return;
+        }
+        EmailPriority priority = job.template.template().getDefaultPriority() != null
+                ? job.template.template().getDefaultPriority()
+                : EmailPriority.LOW;
+        chunk.add(Email.builder()
+                .recipientEmail(row.recipient())
+                .subject(subject)
+                .body(body)
+                .status(EmailStatus.QUEUED)
+                .priority(priority)
+                .templateId(job.template.template().getId())
+                .templateVersion(job.template.version())
+                .retryCount(0)
+                .createdAt(LocalDateTime.now())
+                .batchId(job.id)
+                .build());
+        if (chunk.size() >= chunkSize) {
+            flush(job, chunk);
+        }
+    }
+
+    private void flush(Job job, List<Email> chunk) {
+        if (chunk.isEmpty()) return;
+        bodyStore.store(chunk);
+        batchWriter.persistChunk(chunk, publishSize);
+        job.queued += chunk.size();
+        chunk.clear();
+    }
+
+    private void finish(Job job, String status, String message) {
+        job.status = status;
+        job.message = message;
+        job.finishedAt = LocalDateTime.now();
+        log.info("Mail merge {} {}: {}", job.id, status.toLowerCase(Locale.ROOT), message);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.config.RabbitMQConfig;
+import com.example.emailnotification.dto.message.EmailBatchMessage;
+import com.example.emailnotification.entity.OutboxMessage;
+import com.example.emailnotification.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains the outbox to RabbitMQ. Each round locks a batch of the oldest rows, publishes
+ * them on one channel, waits for the broker to confirm the lot and deletes them in the
+ * same transaction. If the broker is down or does not confirm, the transaction rolls back
+ * and the rows are tried again next tick — a message may be published twice, never lost.
+ * Consumers already skip emails that are no longer due.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxMessageRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter published;
+
+    @Value("${email.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${email.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    public OutboxRelay(OutboxMessageRepository outboxRepository,
+                       RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.published = Counter.builder("email.outbox.published")
+                .description("Outbox messages confirmed by the broker")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-ms:200}")
+    public void relay() {
+        try {
+            int count;
+            do {
+                count = transactionTemplate.execute(status -> publishBatch());
+            } while (count == batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox relay paused, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxMessage> batch = outboxRepository.lockNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+
+        rabbitTemplate.invoke(ops -> {
+            for (OutboxMessage message : batch) {
+                ops.convertAndSend(RabbitMQConfig.EXCHANGE, RabbitMQConfig.routingKey(message.getPriority()), toPayload(message));
+            }
+            ops.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+        outboxRepository.deleteAllInBatch(batch);
+        published.increment(batch.size());
+        log.debug("Relayed {} outbox messages", batch.size());
+        return batch.size();
+    }
+
+    // Single emails keep the plain id payload; everything else is an EmailBatchMessage
+    private static Object toPayload(OutboxMessage message) {
+        List<UUID> ids = message.emailIdList();
+        if (message.getBatchId() == null && ids.size() == 1) {
+            return ids.get(0).toString();
+        }
+        return new EmailBatchMessage(message.getBatchId(), ids);
+    }
+}
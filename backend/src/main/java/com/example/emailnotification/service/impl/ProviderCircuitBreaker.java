@@ -0,0 +1,156 @@
+package com.example.emailnotification.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker around the email provider, driven by the failure rate and slow-call rate
+ * over a sliding window of the last {@code window-size} calls.
+ *
+ * <p>CLOSED lets everything through. Crossing either threshold opens the circuit: calls
+ * are refused for {@code open-duration-ms}, after which the circuit is HALF_OPEN and lets
+ * {@code half-open-probes} calls through. If the probes are healthy the circuit closes,
+ * otherwise it opens again.
+ */
+@Component
+@Slf4j
+public class ProviderCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+
+    // Ring buffer of the last windowSize outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+
+    public ProviderCircuitBreaker(@Value("${email.circuit.window-size:50}") int windowSize,
+                                  @Value("${email.circuit.minimum-calls:20}") int minimumCalls,
+                                  @Value("${email.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+                                  @Value("${email.circuit.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+                                  @Value("${email.circuit.slow-call-ms:5000}") long slowCallMs,
+                                  @Value("${email.circuit.open-duration-ms:30000}") long openDurationMs,
+                                  @Value("${email.circuit.half-open-probes:5}") int halfOpenProbes,
+                                  MeterRegistry meterRegistry) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = halfOpenProbes;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+
+        Gauge.builder("email.provider.circuit.state", this, b -> b.getState().ordinal())
+                .description("Provider circuit: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false if the call must not reach the provider right now
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) return false;
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) return false;
+            probesIssued++;
+        }
+        return true;
+    }
+
+    // The permitted call never reached the provider (e.g. held by the rate limiter)
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && probesIssued > 0) probesIssued--;
+    }
+
+    public void onSuccess(long latencyNanos) {
+        record(false, latencyNanos);
+    }
+
+    public void onFailure(long latencyNanos) {
+        record(true, latencyNanos);
+    }
+
+    /**
+     * Whether queue consumers should be running: not while the circuit is OPEN and its
+     * wait has not elapsed, since every message would just be put back.
+     */
+    public synchronized boolean isAcceptingTraffic() {
+        return state != State.OPEN || System.nanoTime() - openedAt >= openDurationNanos;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized void record(boolean failure, long latencyNanos) {
+        if (state == State.OPEN) return;   // late result from before the circuit opened
+
+        boolean isSlow = latencyNanos > slowCallNanos;
+        if (recorded == windowSize) {
+            if (failed[next]) failures--;
+            if (slow[next]) slowCalls--;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = isSlow;
+        if (failure) failures++;
+        if (isSlow) slowCalls++;
+        next = (next + 1) % windowSize;
+
+        int needed = state == State.HALF_OPEN ? halfOpenProbes : minimumCalls;
+        if (recorded < needed) return;
+
+        double failureRate = failures * 100.0 / recorded;
+        double slowRate = slowCalls * 100.0 / recorded;
+        if (failureRate >= failureRateThreshold || slowRate >= slowCallRateThreshold) {
+            log.warn("Provider circuit opening: failure rate {}%, slow-call rate {}% over {} calls",
+                    String.format("%.0f", failureRate), String.format("%.0f", slowRate), recorded);
+            transitionTo(State.OPEN);
+        } else if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    private void transitionTo(State target) {
+        log.info("Provider circuit {} → {}", state, target);
+        state = target;
+        resetWindow();
+        if (target == State.OPEN) openedAt = System.nanoTime();
+        if (target == State.HALF_OPEN) probesIssued = 0;
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.emailnotification.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket in front of the email provider whose rate adapts AIMD-style: every fast
+ * response adds {@code increase-step / rate} permits/s (about +step per second at full
+ * throughput), and a 429/5xx cuts the rate by {@code decrease-factor}, honouring
+ * Retry-After by pausing the bucket entirely.
+ */
+@Component
+@Slf4j
+public class ProviderRateLimiter {
+
+    // Concurrent in-flight failures from one throttling episode should only cut the rate once
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final long slowCallNanos;
+    private final long maxWaitNanos;
+
+    private final Counter heldCounter;
+    private final Counter throttledCounter;
+
+    private double rate;            // permits per second
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+    private long lastDecrease;
+
+    public ProviderRateLimiter(@Value("${email.rate-limit.initial-rate:50}") double initialRate,
+                               @Value("${email.rate-limit.min-rate:1}") double minRate,
+                               @Value("${email.rate-limit.max-rate:500}") double maxRate,
+                               @Value("${email.rate-limit.increase-step:5}") double increaseStep,
+                               @Value("${email.rate-limit.decrease-factor:0.5}") double decreaseFactor,
+                               @Value("${email.rate-limit.slow-call-ms:1000}") long slowCallMs,
+                               @Value("${email.rate-limit.max-wait-ms:1000}") long maxWaitMs,
+                               MeterRegistry meterRegistry) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.rate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.tokens = 1;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+        this.lastDecrease = lastRefill - DECREASE_COOLDOWN_NANOS;
+
+        Gauge.builder("email.provider.rate", this, ProviderRateLimiter::getRate)
+                .description("Current permitted provider calls per second")
+                .register(meterRegistry);
+        this.heldCounter = Counter.builder("email.provider.throttled")
+                .tag("source", "limiter")
+                .description("Sends held back because no permit was available in time")
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("email.provider.throttled")
+                .tag("source", "provider")
+                .description("Sends the provider rejected with 429 or 5xx")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one permit, waiting up to {@code email.rate-limit.max-wait-ms} for it.
+     *
+     * @return false if no permit became available in time — the caller should hold the send
+     */
+    public boolean tryAcquire() {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                if (now >= pausedUntil && tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                }
+                waitNanos = now < pausedUntil
+                        ? pausedUntil - now
+                        : (long) ((1 - tokens) / rate * 1_000_000_000L);
+                if (now + waitNanos > deadline) {
+                    heldCounter.increment();
+                    return false;
+                }
+            }
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        if (latencyNanos <= slowCallNanos && rate < maxRate) {
+            rate = Math.min(maxRate, rate + increaseStep / rate);
+        }
+    }
+
+    /**
+     * The provider pushed back (429 or 5xx).
+     *
+     * @param retryAfter how long the provider asked us to stay away, or null
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        long now = System.nanoTime();
+        throttledCounter.increment();
+        if (now - lastDecrease >= DECREASE_COOLDOWN_NANOS) {
+            rate = Math.max(minRate, rate * decreaseFactor);
+            lastDecrease = now;
+            log.warn("Provider throttling — send rate reduced to {}/s", String.format("%.1f", rate));
+        }
+        tokens = 0;
+        if (retryAfter != null) {
+            pausedUntil = Math.max(pausedUntil, now + retryAfter.toNanos());
+        }
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            // Burst capacity is one second's worth of permits
+            tokens = Math.min(Math.max(1, rate), tokens + (now - lastRefill) / 1_000_000_000.0 * rate);
+            lastRefill = now;
+        }
+    }
+}
@@ -1,27 +1,36 @@
 package com.example.emailnotification.service.impl;
 
+import com.example.emailnotification.entity.OutboxMessage;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.repository.OutboxMessageRepository;
 import com.example.emailnotification.service.QueueService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Writes queue messages to the outbox instead of publishing them. Called inside a
+ * transaction the row commits with the caller's writes; {@link OutboxRelay} publishes it.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class QueueServiceImpl implements QueueService {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxMessageRepository outboxRepository;
 
     @Override
-    public void pushToQueue(UUID emailId) {
-        try {
-            rabbitTemplate.convertAndSend("email_queue", emailId.toString());
-            log.info("Pushed email {} to queue", emailId);
-        } catch (Exception e) {
-            log.warn("RabbitMQ unavailable, skipping queue push: {}", e.getMessage());
-        }
+    public void pushToQueue(UUID emailId, EmailPriority priority) {
+        outboxRepository.save(OutboxMessage.of(null, priority, List.of(emailId)));
+        log.debug("Email {} added to {} outbox", emailId, priority);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void pushBatchToQueue(UUID batchId, EmailPriority priority, List<UUID> emailIds) {
+        outboxRepository.save(OutboxMessage.of(batchId, priority, emailIds));
+        log.debug("{} emails of batch {} added to {} outbox", emailIds.size(), batchId, priority);
+    }
+}
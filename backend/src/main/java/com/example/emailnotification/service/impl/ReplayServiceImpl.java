@@ -0,0 +1,207 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.dto.request.ReplayRequest;
+import com.example.emailnotification.dto.response.ReplayResponse;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailRef;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.service.ReplayService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk replay of FAILED and PARKED emails. A replay pages through the matching emails by
+ * id in chunks, moves each chunk back to QUEUED through the outbox and paces itself to
+ * {@code rate-per-second}, so replaying a large backlog cannot flood the queue or the
+ * provider. Replays run one at a time on a single thread; later ones wait their turn.
+ */
+@Service
+@Slf4j
+public class ReplayServiceImpl implements ReplayService {
+
+    private static final Set<EmailStatus> REPLAYABLE = EnumSet.of(EmailStatus.FAILED, EmailStatus.PARKED);
+    private static final int MAX_REMEMBERED = 100;
+
+    private final EmailRepository emailRepository;
+    private final EmailBatchWriter batchWriter;
+    private final int chunkSize;
+    private final double ratePerSecond;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "email-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Most recent replays, oldest evicted first
+    private final Map<UUID, Replay> replays = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Replay> eldest) {
+            return size() > MAX_REMEMBERED;
+        }
+    };
+
+    public ReplayServiceImpl(EmailRepository emailRepository,
+                             EmailBatchWriter batchWriter,
+                             @Value("${email.replay.chunk-size:100}") int chunkSize,
+                             @Value("${email.replay.rate-per-second:50}") double ratePerSecond) {
+        this.emailRepository = emailRepository;
+        this.batchWriter = batchWriter;
+        this.chunkSize = chunkSize;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    private static final class Replay {
+        final UUID id = UUID.randomUUID();
+        final ReplayRequest request;
+        volatile String status = "PENDING";
+        volatile int replayed;
+        volatile boolean cancelled;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile String message;
+
+        Replay(ReplayRequest request) {
+            this.request = request;
+        }
+
+        ReplayResponse toResponse() {
+            return ReplayResponse.builder()
+                    .replayId(id)
+                    .status(status)
+                    .replayed(replayed)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .message(message)
+                    .build();
+        }
+    }
+
+    @Override
+    public ReplayResponse startReplay(ReplayRequest request) {
+        Replay replay = new Replay(request);
+        synchronized (replays) {
+            replays.put(replay.id, replay);
+        }
+        executor.execute(() -> run(replay));
+        log.info("Replay {} submitted: {}", replay.id, request);
+        return replay.toResponse();
+    }
+
+    @Override
+    public ReplayResponse getReplay(UUID replayId) {
+        return find(replayId).toResponse();
+    }
+
+    @Override
+    public List<ReplayResponse> getReplays() {
+        synchronized (replays) {
+            return replays.values().stream().map(Replay::toResponse).toList();
+        }
+    }
+
+    @Override
+    public ReplayResponse cancelReplay(UUID replayId) {
+        Replay replay = find(replayId);
+        replay.cancelled = true;
+        return replay.toResponse();
+    }
+
+    private Replay find(UUID replayId) {
+        synchronized (replays) {
+            Replay replay = replays.get(replayId);
+            if (replay == null) throw new NoSuchElementException("Replay not found: " + replayId);
+            return replay;
+        }
+    }
+
+    private void run(Replay replay) {
+        replay.startedAt = LocalDateTime.now();
+        replay.status = "RUNNING";
+        ReplayRequest request = replay.request;
+        Set<EmailStatus> statuses = request.getStatuses() == null || request.getStatuses().isEmpty()
+                ? REPLAYABLE : EnumSet.copyOf(request.getStatuses());
+        String errorContains = StringUtils.hasText(request.getErrorContains()) ? escapeLike(request.getErrorContains()) : null;
+        int limit = request.getLimit() != null ? request.getLimit() : Integer.MAX_VALUE;
+        long nanosPerEmail = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+
+        try {
+            UUID afterId = new UUID(0, 0);
+            while (replay.replayed < limit) {
+                if (replay.cancelled) {
+                    finish(replay, "CANCELLED", "Cancelled after " + replay.replayed + " emails");
+                    return;
+                }
+                int pageSize = Math.min(chunkSize, limit - replay.replayed);
+                List<EmailRef> page = emailRepository.findReplayable(statuses, afterId, errorContains,
+                        request.getFrom(), request.getTo(), request.getTemplateId(), PageRequest.of(0, pageSize));
+                if (page.isEmpty()) break;
+                afterId = page.get(page.size() - 1).getId();
+
+                long started = System.nanoTime();
+                replay.replayed += requeue(page, statuses);
+                // Pace to the configured rate — a chunk of n emails takes at least n / rate seconds
+                long remaining = page.size() * nanosPerEmail - (System.nanoTime() - started);
+                if (remaining > 0) TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            finish(replay, "COMPLETED", "Replayed " + replay.replayed + " emails");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(replay, "CANCELLED", "Interrupted after " + replay.replayed + " emails");
+        } catch (RuntimeException e) {
+            log.error("Replay {} failed after {} emails", replay.id, replay.replayed, e);
+            finish(replay, "FAILED", e.getMessage());
+        }
+    }
+
+    // One outbox message per lane; emails that changed status since the page was read are skipped
+    private int requeue(List<EmailRef> page, Set<EmailStatus> statuses) {
+        Map<EmailPriority, List<UUID>> lanes = new EnumMap<>(EmailPriority.class);
+        for (EmailRef ref : page) {
+            // Rows written before priority lanes existed have no priority
+            EmailPriority lane = ref.getPriority() != null ? ref.getPriority() : EmailPriority.NORMAL;
+            lanes.computeIfAbsent(lane, p -> new ArrayList<>()).add(ref.getId());
+        }
+        int requeued = 0;
+        for (Map.Entry<EmailPriority, List<UUID>> lane : lanes.entrySet()) {
+            requeued += batchWriter.requeue(lane.getValue(), statuses, lane.getKey());
+        }
+        return requeued;
+    }
+
+    private void finish(Replay replay, String status, String message) {
+        replay.status = status;
+        replay.message = message;
+        replay.finishedAt = LocalDateTime.now();
+        log.info("Replay {} {}: {}", replay.id, status.toLowerCase(), message);
+    }
+
+    // The error filter is a substring match; '!' is the query's LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,28 +1,43 @@
 package com.example.emailnotification.service.impl;
 
 import com.example.emailnotification.dto.response.EmailStatisticsResponse;
-import com.example.emailnotification.entity.Email;
-import com.example.emailnotification.enums.EmailStatus;
-import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.dto.response.TemplateVersionStatsResponse;
+import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.repository.EmailDailyStatRepository;
+import com.example.emailnotification.repository.StatusTotal;
+import com.example.emailnotification.repository.TemplateRepository;
+import com.example.emailnotification.repository.TemplateVersionCount;
 import com.example.emailnotification.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class ReportServiceImpl implements ReportService {
 
-    private final EmailRepository emailRepository;
+    private final TemplateRepository templateRepository;
+    private final EmailDailyStatRepository statRepository;
 
+    // A handful of rollup rows per day instead of every email; fresh to within a rollup flush
     @Override
-    public EmailStatisticsResponse getStatistics() {
-        List<Email> all = emailRepository.findAll();
-        long total  = all.size();
-        long sent   = all.stream().filter(e -> e.getStatus() == EmailStatus.SENT).count();
-        long failed = all.stream().filter(e -> e.getStatus() == EmailStatus.FAILED).count();
-        long queued = all.stream().filter(e -> e.getStatus() == EmailStatus.QUEUED).count();
+    public EmailStatisticsResponse getStatistics(UUID templateId) {
+        long total = 0, sent = 0, failed = 0, queued = 0;
+        for (StatusTotal row : statRepository.sumByStatus(templateId)) {
+            total += row.getCount();
+            switch (row.getStatus()) {
+                case SENT -> sent = row.getCount();
+                case FAILED -> failed = row.getCount();
+                case QUEUED -> queued = row.getCount();
+                default -> { }
+            }
+        }
         double rate = total == 0 ? 0.0 : (sent * 100.0) / total;
 
         return EmailStatisticsResponse.builder()
@@ -33,4 +48,35 @@ public class ReportServiceImpl implements ReportService {
                 .successRate(rate)
                 .build();
     }
+
+    // Read from the rollup as well, which is kept per template version
+    @Override
+    public List<TemplateVersionStatsResponse> getTemplateVersionStats(UUID templateId) {
+        Map<String, TemplateVersionStatsResponse> byVersion = new LinkedHashMap<>();
+        for (TemplateVersionCount row : statRepository.sumByTemplateVersion(templateId)) {
+            TemplateVersionStatsResponse stats = byVersion.computeIfAbsent(row.getTemplateVersion(), v ->
+                    TemplateVersionStatsResponse.builder().templateId(row.getTemplateId()).version(v).build());
+            stats.setTotalEmails(stats.getTotalEmails() + row.getCount());
+            switch (row.getStatus()) {
+                case SENT -> stats.setTotalSent(stats.getTotalSent() + row.getCount());
+                case FAILED -> stats.setTotalFailed(stats.getTotalFailed() + row.getCount());
+                case QUEUED -> stats.setTotalQueued(stats.getTotalQueued() + row.getCount());
+                default -> { }
+            }
+        }
+
+        Map<UUID, String> currentVersions = new LinkedHashMap<>();
+        for (Template template : templateRepository.findAllById(byVersion.values().stream()
+                .map(TemplateVersionStatsResponse::getTemplateId).distinct().toList())) {
+            if (template.getCurrentVersion() != null) currentVersions.put(template.getId(), template.getCurrentVersion());
+        }
+        for (TemplateVersionStatsResponse stats : byVersion.values()) {
+            stats.setCurrent(Objects.equals(currentVersions.get(stats.getTemplateId()), stats.getVersion()));
+            stats.setSuccessRate(stats.getTotalEmails() == 0 ? 0.0 : (stats.getTotalSent() * 100.0) / stats.getTotalEmails());
+        }
+        return byVersion.values().stream()
+                .sorted(Comparator.comparing((TemplateVersionStatsResponse s) -> s.getTemplateId().toString())
+                        .thenComparing(TemplateVersionStatsResponse::getTotalEmails, Comparator.reverseOrder()))
+                .toList();
+    }
 }
@@ -0,0 +1,153 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.exception.EmailDeliveryException;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.PendingRetry;
+import com.example.emailnotification.service.QueueService;
+import com.example.emailnotification.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Automatic retries for transient delivery failures. The due time is persisted in
+ * {@code emails.next_attempt_at}; the in-memory timing wheel holds the pending ids and
+ * publishes each one back to the queue when it comes due.
+ */
+@Component
+@Slf4j
+public class RetryScheduler {
+
+    private static final int REBUILD_PAGE_SIZE = 5_000;
+    private static final int PUBLISH_GROUP_SIZE = 100;
+    // A group the broker refused goes back into the wheel for another try this much later
+    private static final long REPUBLISH_DELAY_MS = 5_000;
+
+    private final EmailRepository emailRepository;
+    private final QueueService queueService;
+    private final HierarchicalTimingWheel<Due> wheel;
+
+    // The lane travels with the id so a retry goes back to the queue it came from
+    private record Due(UUID id, EmailPriority priority) {}
+
+    @Value("${email.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${email.retry.base-delay-ms:30000}")
+    private long baseDelayMs;
+
+    @Value("${email.retry.max-delay-ms:3600000}")
+    private long maxDelayMs;
+
+    private volatile boolean ready;
+
+    public RetryScheduler(EmailRepository emailRepository, QueueService queueService,
+                          @Value("${email.retry.tick-ms:1000}") long tickMs,
+                          MeterRegistry meterRegistry) {
+        this.emailRepository = emailRepository;
+        this.queueService = queueService;
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, 512, System.currentTimeMillis());
+        Gauge.builder("email.retry.pending", wheel, HierarchicalTimingWheel::size)
+                .description("Automatic retries waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether a failed email gets another automatic attempt and, if so, stamps
+     * {@code nextAttemptAt} with an exponential backoff plus jitter. Call before saving.
+     */
+    public void planRetry(Email email, Exception cause) {
+        if (!isTransient(cause) || email.getRetryCount() + 1 >= maxAttempts) {
+            email.setNextAttemptAt(null);
+            return;
+        }
+        // Equal jitter: half the backoff is fixed, the other half random
+        long backoff = Math.min(maxDelayMs, baseDelayMs << Math.min(email.getRetryCount(), 30));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        email.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+    }
+
+    // Call after the email (with its nextAttemptAt) has been saved
+    public void schedule(Email email) {
+        if (email.getNextAttemptAt() != null) {
+            wheel.add(new Due(email.getId(), email.getPriority()), toEpochMs(email.getNextAttemptAt()));
+            log.info("Retry {} of email {} scheduled at {}", email.getRetryCount() + 1, email.getId(), email.getNextAttemptAt());
+        }
+    }
+
+    // Reload pending retries after a restart by walking idx_emails_next_attempt_at
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime after = LocalDateTime.of(1970, 1, 1, 0, 0);
+        UUID afterId = new UUID(0, 0);
+        int loaded = 0;
+        while (true) {
+            List<PendingRetry> page = emailRepository.findPendingRetries(after, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (PendingRetry retry : page) {
+                wheel.add(new Due(retry.getId(), retry.getPriority()), toEpochMs(retry.getNextAttemptAt()));
+            }
+            loaded += page.size();
+            if (page.size() < REBUILD_PAGE_SIZE) break;
+            PendingRetry last = page.get(page.size() - 1);
+            after = last.getNextAttemptAt();
+            afterId = last.getId();
+        }
+        ready = true;
+        log.info("Retry wheel rebuilt with {} pending retries", loaded);
+    }
+
+    @Scheduled(fixedDelayString = "${email.retry.tick-ms:1000}")
+    public void tick() {
+        if (!ready) return;
+        Map<EmailPriority, List<UUID>> byLane = new EnumMap<>(EmailPriority.class);
+        for (Due due : wheel.advance(System.currentTimeMillis())) {
+            EmailPriority lane = due.priority() != null ? due.priority() : EmailPriority.NORMAL;
+            byLane.computeIfAbsent(lane, p -> new ArrayList<>()).add(due.id());
+        }
+        byLane.forEach((lane, due) -> {
+            for (int from = 0; from < due.size(); from += PUBLISH_GROUP_SIZE) {
+                List<UUID> group = List.copyOf(due.subList(from, Math.min(from + PUBLISH_GROUP_SIZE, due.size())));
+                try {
+                    if (group.size() == 1) {
+                        queueService.pushToQueue(group.get(0), lane);
+                    } else {
+                        queueService.pushBatchToQueue(null, lane, group);
+                    }
+                } catch (Exception e) {
+                    // advance() already took them out of the wheel — dropping them here would lose the retry
+                    log.warn("Could not publish {} due retries: {}", group.size(), e.getMessage());
+                    long retryAt = System.currentTimeMillis() + REPUBLISH_DELAY_MS;
+                    group.forEach(id -> wheel.add(new Due(id, lane), retryAt));
+                }
+            }
+        });
+    }
+
+    // Connection errors and timeouts are worth retrying; non-I/O errors are bugs, not blips
+    private static boolean isTransient(Exception cause) {
+        if (cause instanceof EmailDeliveryException delivery) return delivery.isTransient();
+        return cause instanceof IOException;
+    }
+
+    private static long toEpochMs(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
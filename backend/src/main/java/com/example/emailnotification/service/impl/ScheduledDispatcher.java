@@ -0,0 +1,137 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.ScheduledEmail;
+import com.example.emailnotification.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Releases SCHEDULED emails when their time comes. Only the next {@code window-ms} of
+ * scheduled sends is held in memory: each window is loaded with a keyset range scan over
+ * {@code idx_emails_scheduled_at}, so emails dated weeks ahead cost nothing until their
+ * window comes up, and immediate sends never touch this path.
+ */
+@Component
+@Slf4j
+public class ScheduledDispatcher {
+
+    private static final int LOAD_PAGE_SIZE = 5_000;
+    private static final int RELEASE_GROUP_SIZE = 100;
+
+    private record Due(UUID id, EmailPriority priority) {}
+
+    private final EmailRepository emailRepository;
+    private final EmailBatchWriter batchWriter;
+    private final HierarchicalTimingWheel<Due> wheel;
+    private final long windowMs;
+
+    // Ids currently in the wheel — a send and a window load may both see the same email
+    private final Set<UUID> loaded = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime loadedUntil;
+
+    public ScheduledDispatcher(EmailRepository emailRepository, EmailBatchWriter batchWriter,
+                               @Value("${email.schedule.tick-ms:1000}") long tickMs,
+                               @Value("${email.schedule.window-ms:300000}") long windowMs,
+                               MeterRegistry meterRegistry) {
+        this.emailRepository = emailRepository;
+        this.batchWriter = batchWriter;
+        this.windowMs = windowMs;
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, 512, System.currentTimeMillis());
+        Gauge.builder("email.schedule.pending", wheel, HierarchicalTimingWheel::size)
+                .description("Scheduled emails of the current window waiting to be released")
+                .register(meterRegistry);
+    }
+
+    // Call after a SCHEDULED email has been saved; later windows pick up the rest
+    public void schedule(Email email) {
+        LocalDateTime until = loadedUntil;
+        if (until != null && !email.getScheduledAt().isAfter(until)) {
+            add(email.getId(), email.getPriority(), email.getScheduledAt());
+        }
+    }
+
+    // First window starts at the epoch so sends that fell due while we were down go out now
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadWindow(LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.now().plusNanos(windowMs * 1_000_000));
+    }
+
+    @Scheduled(fixedDelayString = "${email.schedule.tick-ms:1000}")
+    public void tick() {
+        LocalDateTime until = loadedUntil;
+        if (until == null) return;
+        // Load the next window once half of the current one has passed
+        if (LocalDateTime.now().plusNanos(windowMs / 2 * 1_000_000).isAfter(until)) {
+            loadWindow(until, until.plusNanos(windowMs * 1_000_000));
+        }
+        release(wheel.advance(System.currentTimeMillis()));
+    }
+
+    private void loadWindow(LocalDateTime from, LocalDateTime until) {
+        LocalDateTime after = from;
+        UUID afterId = new UUID(0, 0);
+        int count = 0;
+        // Publish the new bound first so concurrent sends inside it go straight to the wheel
+        loadedUntil = until;
+        while (true) {
+            List<ScheduledEmail> page = emailRepository.findScheduled(after, afterId, until, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (ScheduledEmail e : page) {
+                add(e.getId(), e.getPriority(), e.getScheduledAt());
+            }
+            count += page.size();
+            if (page.size() < LOAD_PAGE_SIZE) break;
+            ScheduledEmail last = page.get(page.size() - 1);
+            after = last.getScheduledAt();
+            afterId = last.getId();
+        }
+        log.info("Loaded {} scheduled emails due until {}", count, until);
+    }
+
+    private void add(UUID id, EmailPriority priority, LocalDateTime scheduledAt) {
+        if (loaded.add(id)) {
+            wheel.add(new Due(id, priority != null ? priority : EmailPriority.NORMAL),
+                    scheduledAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private void release(List<Due> due) {
+        if (due.isEmpty()) return;
+        Map<EmailPriority, List<UUID>> byLane = new EnumMap<>(EmailPriority.class);
+        due.forEach(d -> byLane.computeIfAbsent(d.priority(), p -> new ArrayList<>()).add(d.id()));
+        byLane.forEach((lane, ids) -> {
+            for (int from = 0; from < ids.size(); from += RELEASE_GROUP_SIZE) {
+                List<UUID> group = List.copyOf(ids.subList(from, Math.min(from + RELEASE_GROUP_SIZE, ids.size())));
+                try {
+                    int released = batchWriter.releaseScheduled(group, lane);
+                    log.debug("Released {} scheduled {} emails", released, lane);
+                    group.forEach(loaded::remove);
+                } catch (Exception e) {
+                    // Still SCHEDULED in the DB — try again on the next tick
+                    log.warn("Could not release {} scheduled emails: {}", group.size(), e.getMessage());
+                    long retryAt = System.currentTimeMillis();
+                    group.forEach(id -> wheel.add(new Due(id, lane), retryAt));
+                }
+            }
+        });
+    }
+}
@@ -1,44 +1,229 @@
 package com.example.emailnotification.service.impl;
 
-import com.sendgrid.*;
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.helpers.mail.objects.Email;
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.exception.DeliveryDeferredException;
+import com.example.emailnotification.exception.EmailDeliveryException;
+import com.example.emailnotification.service.BatchSendResult;
+import com.example.emailnotification.service.EmailSender;
+import com.example.emailnotification.util.ByteBufferPool;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
 
 @Service
+@ConditionalOnProperty(name = "email.sender", havingValue = "sendgrid", matchIfMissing = true)
+@RequiredArgsConstructor
 @Slf4j
-public class SendGridEmailSender {
+public class SendGridEmailSender implements EmailSender {
 
-    @Value("${sendgrid.api.key}")
-    private String sendGridApiKey;
+    // SendGrid's limit on personalizations in a single mail/send request
+    static final int MAX_PERSONALIZATIONS = 1000;
+
+    // Shared, connection-pooled client and request-body buffers from SendGridConfig
+    private final CloseableHttpClient sendGridHttpClient;
+    private final ByteBufferPool sendGridPayloadBuffers;
+    private final ProviderRateLimiter rateLimiter;
+    private final ProviderCircuitBreaker circuitBreaker;
 
     @Value("${sendgrid.from.email}")
     private String fromEmail;
 
-    public void sendEmail(String to, String subject, String body) throws IOException {
+    @Value("${sendgrid.api.key}")
+    private String apiKey;
+
+    @Value("${sendgrid.api.host:https://api.sendgrid.com}")
+    private String apiHost;
+
+    @Override
+    public String sendEmail(String to, String subject, String body) throws IOException {
+        String messageId = send(out -> SendGridPayload.writeSingle(out, fromEmail, to, subject, body));
+        log.info("SendGrid accepted email to={} messageId={}", to, messageId);
+        return messageId;
+    }
 
-        Email from    = new Email(fromEmail);
-        Email toEmail = new Email(to);
-        Content content = new Content("text/plain", body);
-        Mail mail = new Mail(from, subject, toEmail, content);
+    /**
+     * Sends many emails with as few API calls as possible: emails sharing subject and body
+     * go out as personalizations of one mail/send request (up to 1000 each). Every
+     * personalization carries the email id as a custom arg, so webhook events can be
+     * correlated back to the individual row. The X-Message-Id of a request is only recorded
+     * for an email that had the request to itself — it would not be unique otherwise.
+     *
+     * <p>Only byte-identical content is grouped. Mail-merge and other templated emails are
+     * stored rendered, without their variables, so they cannot be sent as substitutions of
+     * one shared body; each such email goes out as a request of its own.
+     */
+    @Override
+    public BatchSendResult sendBatch(List<Email> emails) {
+        Map<String, List<Email>> groups = new LinkedHashMap<>();
+        for (Email email : emails) {
+            groups.computeIfAbsent(email.getSubject() + '\u0000' + email.getBody(), k -> new ArrayList<>()).add(email);
+        }
 
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
-        request.setMethod(Method.POST);
-        request.setEndpoint("mail/send");
-        request.setBody(mail.build());
+        BatchSendResult result = new BatchSendResult();
+        for (List<Email> group : groups.values()) {
+            for (List<Email> request : splitRequests(group)) {
+                sendRequest(request, result);
+            }
+        }
+        return result;
+    }
 
-        Response response = sg.api(request);
+    private void sendRequest(List<Email> request, BatchSendResult result) {
+        try {
+            String messageId = send(out -> SendGridPayload.writeMulti(out, fromEmail, request));
+            if (request.size() == 1) result.accept(request.get(0).getId(), messageId);
+            log.info("SendGrid accepted {} personalizations", request.size());
+        } catch (DeliveryDeferredException e) {
+            log.warn("Holding {} personalizations: {}", request.size(), e.getMessage());
+            request.forEach(email -> result.defer(email.getId()));
+        } catch (EmailDeliveryException e) {
+            if (request.size() > 1 && !e.isTransient()) {
+                // One bad address rejects the whole request; find it by sending each email on its own
+                log.warn("SendGrid rejected {} personalizations ({}), sending them one by one",
+                        request.size(), e.getStatusCode());
+                request.forEach(email -> sendRequest(List.of(email), result));
+                return;
+            }
+            log.error("SendGrid rejected {} personalizations: {}", request.size(), e.getMessage());
+            request.forEach(email -> result.fail(email.getId(), e));
+        } catch (Exception e) {
+            log.error("SendGrid rejected {} personalizations: {}", request.size(), e.getMessage());
+            request.forEach(email -> result.fail(email.getId(), e));
+        }
+    }
 
-        if (response.getStatusCode() >= 400) {
-            throw new IOException("SendGrid error " + response.getStatusCode() + ": " + response.getBody());
+    // Caps each request at MAX_PERSONALIZATIONS and never repeats a recipient within one request
+    private List<List<Email>> splitRequests(
+            List<Email> group) {
+        List<List<Email>> requests = new ArrayList<>();
+        List<Set<String>> recipients = new ArrayList<>();
+        for (Email email : group) {
+            String key = email.getRecipientEmail().toLowerCase(Locale.ROOT);
+            int i = 0;
+            while (i < requests.size()
+                    && (requests.get(i).size() >= MAX_PERSONALIZATIONS || recipients.get(i).contains(key))) {
+                i++;
+            }
+            if (i == requests.size()) {
+                requests.add(new ArrayList<>());
+                recipients.add(new HashSet<>());
+            }
+            requests.get(i).add(email);
+            recipients.get(i).add(key);
         }
+        return requests;
+    }
 
-        log.info("SendGrid accepted email to={} status={}", to, response.getStatusCode());
+    // Returns the X-Message-Id SendGrid assigned to the accepted request
+    private String send(Consumer<ByteBufferPool.Buffer> payload) throws IOException {
+        // Open circuit → skip the provider entirely; the email stays QUEUED and drains later
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new DeliveryDeferredException("Provider circuit is open");
+        }
+        if (!rateLimiter.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            throw new DeliveryDeferredException("Provider rate limit reached");
+        }
+
+        // Set once the call's outcome reached the breaker; anything else thrown on the way —
+        // a payload, pool or response-parsing error — must not keep a half-open probe slot
+        boolean recorded = false;
+        try {
+            ByteBufferPool.Buffer buffer = sendGridPayloadBuffers.acquire();
+            long start = System.nanoTime();
+            int status;
+            String responseBody;
+            Map<String, String> headers;
+            String messageId;
+            try {
+                payload.accept(buffer);
+                // The entity reads the pooled array in place — the body is not copied again
+                HttpPost post = new HttpPost(apiHost + "/v3/mail/send");
+                post.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+                post.setHeader(HttpHeaders.ACCEPT, "application/json");
+                post.setEntity(new ByteArrayEntity(buffer.array(), 0, buffer.size(), ContentType.APPLICATION_JSON));
+                start = System.nanoTime();
+                try (CloseableHttpResponse response = sendGridHttpClient.execute(post)) {
+                    status = response.getStatusLine().getStatusCode();
+                    responseBody = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
+                    headers = status == 429 || status >= 500 ? headerMap(response.getAllHeaders()) : Map.of();
+                    Header messageIdHeader = response.getFirstHeader("X-Message-Id");
+                    messageId = messageIdHeader != null ? messageIdHeader.getValue() : null;
+                }
+            } catch (IOException e) {
+                // Connection refused / timed out — the provider is unreachable
+                recorded = true;
+                circuitBreaker.onFailure(System.nanoTime() - start);
+                throw e;
+            } finally {
+                sendGridPayloadBuffers.release(buffer);
+            }
+            long latency = System.nanoTime() - start;
+
+            if (status == 429 || status >= 500) {
+                Duration retryAfter = retryAfter(headers);
+                rateLimiter.onThrottled(retryAfter);
+                if (status == 429) {
+                    // Throttling is the limiter's business, not an outage — the finally below gives the permission back
+                    throw new DeliveryDeferredException("SendGrid throttled the request (429)");
+                }
+                recorded = true;
+                circuitBreaker.onFailure(latency);
+                throw new EmailDeliveryException(status, "SendGrid error " + status + ": " + responseBody, retryAfter);
+            }
+            // A 4xx means the provider is up and answered — it counts as a healthy call
+            recorded = true;
+            circuitBreaker.onSuccess(latency);
+            if (status >= 400) {
+                throw new EmailDeliveryException(status, "SendGrid error " + status + ": " + responseBody, null);
+            }
+            rateLimiter.onSuccess(latency);
+            return messageId;
+        } finally {
+            if (!recorded) circuitBreaker.releasePermission();
+        }
+    }
+
+    private static Map<String, String> headerMap(Header[] headers) {
+        Map<String, String> map = new HashMap<>();
+        for (Header header : headers) {
+            map.put(header.getName(), header.getValue());
+        }
+        return map;
+    }
+
+    // Retry-After is in seconds; SendGrid's X-RateLimit-Reset is the epoch second the window resets
+    static Duration retryAfter(Map<String, String> headers) {
+        if (headers == null) return null;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            try {
+                if ("Retry-After".equalsIgnoreCase(header.getKey())) {
+                    return Duration.ofSeconds(Long.parseLong(header.getValue().trim()));
+                }
+                if ("X-RateLimit-Reset".equalsIgnoreCase(header.getKey())) {
+                    long wait = Long.parseLong(header.getValue().trim()) - Instant.now().getEpochSecond();
+                    return Duration.ofSeconds(Math.max(1, wait));
+                }
+            } catch (NumberFormatException ignored) {
+                // HTTP-date or malformed value — fall back to the limiter's own backoff
+            }
+        }
+        return null;
     }
 }
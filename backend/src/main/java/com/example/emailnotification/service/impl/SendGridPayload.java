@@ -0,0 +1,63 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.util.ByteBufferPool;
+import com.example.emailnotification.util.JsonUtf8Writer;
+
+import java.util.List;
+
+/**
+ * Writes SendGrid v3 mail/send bodies directly into a pooled buffer: the fixed JSON
+ * skeleton as ASCII and every subject, body and address escaped straight from the entity's
+ * strings, so a 200 KB body is encoded once instead of being copied through Mail objects,
+ * a JSON String and a request entity.
+ *
+ * <p>This does not stream template segments. A templated email is rendered into a String
+ * once, when it is accepted, because that String is what gets stored and later delivered,
+ * retried and exported. That String is then escaped into the buffer here. So template
+ * sends still allocate the rendered body once per email, and the near-zero-garbage goal
+ * is met only for the request encoding, not for rendering.
+ */
+public final class SendGridPayload {
+
+    private SendGridPayload() {
+    }
+
+    public static void writeSingle(ByteBufferPool.Buffer out, String from, String to, String subject, String body) {
+        writeHead(out, from, subject);
+        out.writeAscii("{\"to\":[{\"email\":");
+        JsonUtf8Writer.writeString(out, to);
+        out.writeAscii("}]}");
+        writeTail(out, body);
+    }
+
+    // One personalization per email, tagged with its id for webhook correlation
+    public static void writeMulti(ByteBufferPool.Buffer out, String from, List<Email> emails) {
+        Email first = emails.get(0);
+        writeHead(out, from, first.getSubject());
+        for (int i = 0; i < emails.size(); i++) {
+            Email email = emails.get(i);
+            if (i > 0) out.write(',');
+            out.writeAscii("{\"to\":[{\"email\":");
+            JsonUtf8Writer.writeString(out, email.getRecipientEmail());
+            out.writeAscii("}],\"custom_args\":{\"email_id\":\"");
+            out.writeAscii(email.getId().toString());
+            out.writeAscii("\"}}");
+        }
+        writeTail(out, first.getBody());
+    }
+
+    private static void writeHead(ByteBufferPool.Buffer out, String from, String subject) {
+        out.writeAscii("{\"from\":{\"email\":");
+        JsonUtf8Writer.writeString(out, from);
+        out.writeAscii("},\"subject\":");
+        JsonUtf8Writer.writeString(out, subject);
+        out.writeAscii(",\"personalizations\":[");
+    }
+
+    private static void writeTail(ByteBufferPool.Buffer out, String body) {
+        out.writeAscii("],\"content\":[{\"type\":\"text/plain\",\"value\":");
+        JsonUtf8Writer.writeString(out, body);
+        out.writeAscii("}]}");
+    }
+}
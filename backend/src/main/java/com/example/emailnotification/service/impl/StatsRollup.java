@@ -0,0 +1,371 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.EmailDailyStat;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailDailyStatRepository;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.StatusCount;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the {@link EmailDailyStat} rollup current. Writers report new emails and status
+ * transitions here; each delta counts once its transaction commits (at once outside one),
+ * deltas are summed in memory per rollup cell, and every {@code flush-ms} they are written
+ * as one JDBC batch of increments.
+ *
+ * <p>A delta lost to a crash or failed write, or a change made outside the application,
+ * is drift. {@link #reconcileRecent} recounts the last {@code reconcile-days} days from
+ * the emails table every {@code reconcile-ms}, {@link #reconcileAll} recounts every day
+ * nightly — one created_at range per statement — and a day is rewritten only when its
+ * counts differ. An empty rollup is backfilled at startup.
+ *
+ * <p>Reconciliation runs on a thread of its own, never on the shared scheduler or at
+ * startup, and goes one day at a time: flushes wait for at most one day's recount, and a
+ * pause of {@code reconcile-pause-ms} between days leaves the database to live traffic.
+ */
+@Component
+@Slf4j
+public class StatsRollup {
+
+    static final String INCREMENT_SQL = "UPDATE email_daily_stats SET email_count = email_count + ? "
+            + "WHERE stat_date = ? AND status = ? AND template_id = ? AND template_version = ?";
+    static final String INSERT_SQL = "INSERT INTO email_daily_stats "
+            + "(email_count, stat_date, status, template_id, template_version) VALUES (?, ?, ?, ?, ?)";
+
+    private record Cell(LocalDate day, EmailStatus status, UUID templateId, String templateVersion) {
+        Cell {
+            if (templateId == null) templateId = EmailDailyStat.NO_TEMPLATE;
+            if (templateVersion == null) templateVersion = EmailDailyStat.NO_VERSION;
+        }
+    }
+
+    private final EmailRepository emailRepository;
+    private final EmailDailyStatRepository statRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int reconcileDays;
+    private final long reconcilePauseMs;
+
+    private final ExecutorService reconciler = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "stats-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Set while a run of that kind is waiting or running, so slow runs do not pile up
+    private final AtomicBoolean recentPending = new AtomicBoolean();
+    private final AtomicBoolean fullPending = new AtomicBoolean();
+
+    private Map<Cell, Long> pending = new HashMap<>();
+    // Flushes and reconciliations take turns, so a recount never races a write of the same cells
+    private final Object writeLock = new Object();
+    // Held shared by a transaction from just before its commit until its deltas are merged, and
+    // exclusively by a recount: every change is then either merged before the recount or committed after it
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    public StatsRollup(EmailRepository emailRepository,
+                       EmailDailyStatRepository statRepository,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${email.stats.reconcile-days:2}") int reconcileDays,
+                       @Value("${email.stats.reconcile-pause-ms:20}") long reconcilePauseMs) {
+        this.emailRepository = emailRepository;
+        this.statRepository = statRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileDays = reconcileDays;
+        this.reconcilePauseMs = reconcilePauseMs;
+    }
+
+    // Newly inserted emails, counted in their initial status
+    public void created(Collection<Email> emails) {
+        Map<Cell, Long> deltas = new HashMap<>();
+        for (Email email : emails) {
+            if (email.getCreatedAt() == null) continue;
+            deltas.merge(new Cell(email.getCreatedAt().toLocalDate(), email.getStatus(), email.getTemplateId(),
+                    email.getTemplateVersion()), 1L, Long::sum);
+        }
+        apply(deltas);
+    }
+
+    // The email moved from {@code from} to its current status
+    public void transitioned(Email email, EmailStatus from) {
+        if (from == email.getStatus() || email.getCreatedAt() == null) return;
+        LocalDate day = email.getCreatedAt().toLocalDate();
+        Map<Cell, Long> deltas = new HashMap<>(4);
+        deltas.merge(new Cell(day, from, email.getTemplateId(), email.getTemplateVersion()), -1L, Long::sum);
+        deltas.merge(new Cell(day, email.getStatus(), email.getTemplateId(), email.getTemplateVersion()), 1L, Long::sum);
+        apply(deltas);
+    }
+
+    // Emails counted by EmailRepository#countForStats were all moved to {@code to} by a bulk update
+    public void moved(Collection<StatusCount> counts, EmailStatus to) {
+        Map<Cell, Long> deltas = new HashMap<>();
+        for (StatusCount count : counts) {
+            if (count.getStatus() == to || count.getDay() == null) continue;
+            deltas.merge(new Cell(count.getDay(), count.getStatus(), count.getTemplateId(), count.getTemplateVersion()),
+                    -count.getCount(), Long::sum);
+            deltas.merge(new Cell(count.getDay(), to, count.getTemplateId(), count.getTemplateVersion()),
+                    count.getCount(), Long::sum);
+        }
+        apply(deltas);
+    }
+
+    private void apply(Map<Cell, Long> deltas) {
+        if (deltas.isEmpty()) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rolled-back change must not be counted
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean gated;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitGate.readLock().lock();
+                    gated = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    merge(deltas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (gated) commitGate.readLock().unlock();
+                }
+            });
+        } else {
+            merge(deltas);
+        }
+    }
+
+    private synchronized void merge(Map<Cell, Long> deltas) {
+        deltas.forEach((cell, delta) -> pending.merge(cell, delta, Long::sum));
+    }
+
+    private synchronized Map<Cell, Long> drain() {
+        Map<Cell, Long> drained = pending;
+        pending = new HashMap<>();
+        drained.values().removeIf(delta -> delta == 0);
+        return drained;
+    }
+
+    private synchronized void discard(LocalDate day) {
+        pending.keySet().removeIf(cell -> cell.day().equals(day));
+    }
+
+    @Scheduled(fixedDelayString = "${email.stats.flush-ms:1000}")
+    public void flush() {
+        synchronized (writeLock) {
+            Map<Cell, Long> deltas = drain();
+            if (deltas.isEmpty()) return;
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(deltas));
+                log.debug("Flushed {} statistics deltas", deltas.size());
+            } catch (RuntimeException e) {
+                // Kept for the next flush; a concurrent insert of the same cell succeeds as an update then
+                log.warn("Failed to flush {} statistics deltas: {}", deltas.size(), e.getMessage());
+                merge(deltas);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        reconciler.shutdownNow();
+        flush();
+    }
+
+    private void write(Map<Cell, Long> deltas) {
+        List<Map.Entry<Cell, Long>> rows = new ArrayList<>(deltas.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getValue());
+            bindCell(ps, row.getKey());
+        });
+        List<Map.Entry<Cell, Long>> missing = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[0][i] == 0) missing.add(rows.get(i));
+        }
+        if (!missing.isEmpty()) insert(missing);
+    }
+
+    private void insert(List<Map.Entry<Cell, Long>> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getValue());
+            bindCell(ps, row.getKey());
+        });
+    }
+
+    @Scheduled(initialDelayString = "${email.stats.reconcile-ms:600000}",
+               fixedDelayString = "${email.stats.reconcile-ms:600000}")
+    public void startRecentReconcile() {
+        submit(recentPending, this::reconcileRecent);
+    }
+
+    @Scheduled(cron = "${email.stats.full-reconcile-cron:0 30 3 * * *}")
+    public void startFullReconcile() {
+        submit(fullPending, this::reconcileAll);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        submit(fullPending, () -> {
+            if (statRepository.count() == 0 && emailRepository.findOldestCreatedAt() != null) {
+                log.info("Statistics rollup is empty, building it from the emails table");
+                reconcileAll();
+            }
+        });
+    }
+
+    private void submit(AtomicBoolean pendingRun, Runnable run) {
+        if (!pendingRun.compareAndSet(false, true)) return;
+        try {
+            reconciler.execute(() -> {
+                try {
+                    run.run();
+                } catch (RuntimeException e) {
+                    log.error("Statistics reconciliation failed: {}", e.getMessage(), e);
+                } finally {
+                    pendingRun.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            pendingRun.set(false);
+        }
+    }
+
+    public void reconcileRecent() {
+        LocalDate today = LocalDate.now();
+        int corrected = 0;
+        for (int i = reconcileDays - 1; i >= 0; i--) {
+            if (reconcile(today.minusDays(i))) corrected++;
+            if (!pause()) return;
+        }
+        if (corrected > 0) log.warn("Statistics rollup drifted on {} of the last {} days, corrected", corrected, reconcileDays);
+    }
+
+    public void reconcileAll() {
+        LocalDateTime oldest = emailRepository.findOldestCreatedAt();
+        LocalDate first = oldest != null ? oldest.toLocalDate() : LocalDate.now().plusDays(1);
+        // Days whose emails are all gone
+        int stale = jdbcTemplate.update("DELETE FROM email_daily_stats WHERE stat_date < ?", Date.valueOf(first));
+        int days = 0;
+        int corrected = 0;
+        for (LocalDate day = first; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            days++;
+            if (reconcile(day)) corrected++;
+            if (!pause()) {
+                log.info("Statistics reconciliation stopped after {} days", days);
+                return;
+            }
+        }
+        log.info("Reconciled statistics rollup over {} days: {} corrected, {} stale rows removed", days, corrected, stale);
+    }
+
+    // False once the thread is interrupted, i.e. the application is stopping
+    private boolean pause() {
+        if (reconcilePauseMs <= 0) return !Thread.currentThread().isInterrupted();
+        try {
+            Thread.sleep(reconcilePauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Recounts one day from the emails table and rewrites its rollup rows if they differ.
+     *
+     * @return whether the day had drifted
+     */
+    public boolean reconcile(LocalDate day) {
+        synchronized (writeLock) {
+            Map<Cell, Long> counted = new HashMap<>();
+            // No transaction is between its commit and the merge of its deltas while the gate is held:
+            // the deltas pending now are all included in the recount and would otherwise be added on
+            // top of it, and any delta merged later belongs to a commit the recount did not see
+            commitGate.writeLock().lock();
+            try {
+                discard(day);
+                for (StatusCount count : emailRepository.countForStats(day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+                    counted.merge(new Cell(count.getDay(), count.getStatus(), count.getTemplateId(), count.getTemplateVersion()),
+                            count.getCount(), Long::sum);
+                }
+            } finally {
+                commitGate.writeLock().unlock();
+            }
+            Map<Cell, Long> stored = new HashMap<>();
+            jdbcTemplate.query("SELECT status, template_id, template_version, email_count FROM email_daily_stats "
+                    + "WHERE stat_date = ?",
+                    rs -> {
+                        long emails = rs.getLong(4);
+                        if (emails != 0) {
+                            stored.put(new Cell(day, EmailStatus.valueOf(rs.getString(1)), fromBytes(rs.getBytes(2)),
+                                    rs.getString(3)), emails);
+                        }
+                    }, Date.valueOf(day));
+            if (stored.equals(counted)) return false;
+
+            List<Map.Entry<Cell, Long>> rows = new ArrayList<>(counted.entrySet());
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM email_daily_stats WHERE stat_date = ?", Date.valueOf(day));
+                if (!rows.isEmpty()) insert(rows);
+            });
+            log.debug("Statistics rollup for {} rewritten: {} cells stored, {} counted", day, stored.size(), counted.size());
+            return true;
+        }
+    }
+
+    // Parameters 2-5 of both statements
+    private static void bindCell(PreparedStatement ps, Cell cell) throws SQLException {
+        ps.setDate(2, Date.valueOf(cell.day()));
+        ps.setString(3, cell.status().name());
+        ps.setBytes(4, toBytes(cell.templateId()));
+        ps.setString(5, cell.templateVersion());
+    }
+
+    // BINARY(16), most significant bits first — the layout Hibernate writes
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for delivery outcomes. Status transitions from all queue consumers
+ * are collected and written as one JDBC batch of UPDATEs every {@code max-items} updates
+ * or {@code flush-ms} milliseconds, whichever comes first. The future returned by
+ * {@link #submit} completes once the batch holding those updates has committed — the
+ * consumer acks its messages only then.
+ *
+ * <p>Flushes run on a thread of their own rather than the shared scheduler: consumers wait
+ * on them with an ack timeout, and a slow scheduled job must not push them past it.
+ */
+@Component
+@Slf4j
+public class StatusWriteBuffer {
+
+    static final String UPDATE_SQL = "UPDATE emails SET status = ?, sent_at = ?, error_message = ?, "
+            + "retry_count = ?, next_attempt_at = ?, provider_message_id = COALESCE(?, provider_message_id) "
+            + "WHERE id = ?";
+
+    private record Update(UUID id, EmailStatus status, LocalDateTime sentAt, String errorMessage,
+                          int retryCount, LocalDateTime nextAttemptAt, String providerMessageId) {
+        static Update of(Email email) {
+            // error_message is VARCHAR(255); one long provider message must not fail the whole batch
+            String error = email.getErrorMessage();
+            if (error != null && error.length() > 255) error = error.substring(0, 255);
+            return new Update(email.getId(), email.getStatus(), email.getSentAt(), error,
+                    email.getRetryCount(), email.getNextAttemptAt(), email.getProviderMessageId());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+    private final long flushMs;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "status-write-buffer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<Update> pending = new ArrayList<>();
+    private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+
+    public StatusWriteBuffer(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${email.status-buffer.max-items:500}") int maxItems,
+                             @Value("${email.status-buffer.flush-ms:50}") long flushMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+        this.flushMs = flushMs;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(this::flush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the current status fields of these emails for the next flush.
+     *
+     * @return completes when the updates are committed, or exceptionally if the flush failed
+     */
+    public CompletableFuture<Void> submit(Collection<Email> emails) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        boolean full;
+        synchronized (this) {
+            emails.forEach(email -> pending.add(Update.of(email)));
+            waiting.add(written);
+            full = pending.size() >= maxItems;
+        }
+        if (full) flush();
+        return written;
+    }
+
+    public void flush() {
+        List<Update> updates;
+        List<CompletableFuture<Void>> callers;
+        synchronized (this) {
+            if (waiting.isEmpty()) return;
+            updates = pending;
+            callers = waiting;
+            pending = new ArrayList<>();
+            waiting = new ArrayList<>();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, u) -> {
+                        ps.setString(1, u.status().name());
+                        ps.setTimestamp(2, u.sentAt() == null ? null : Timestamp.valueOf(u.sentAt()));
+                        ps.setString(3, u.errorMessage());
+                        ps.setInt(4, u.retryCount());
+                        ps.setTimestamp(5, u.nextAttemptAt() == null ? null : Timestamp.valueOf(u.nextAttemptAt()));
+                        ps.setString(6, u.providerMessageId());
+                        ps.setBytes(7, toBytes(u.id()));
+                    }));
+            log.debug("Flushed {} status updates", updates.size());
+            callers.forEach(f -> f.complete(null));
+        } catch (Exception e) {
+            log.error("Failed to flush {} status updates: {}", updates.size(), e.getMessage());
+            callers.forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void drain() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    // emails.id is BINARY(16), most significant bits first — the layout Hibernate writes
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.emailnotification.service.impl;
+
+import com.example.emailnotification.config.RabbitMQConfig;
+import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.entity.TemplateVersion;
+import com.example.emailnotification.exception.TemplateRenderException;
+import com.example.emailnotification.repository.TemplateRepository;
+import com.example.emailnotification.util.CompiledTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU of compiled templates by id, so neither a send with a templateId nor
+ * GET /api/templates/{id} reads the template row or re-parses it.
+ *
+ * <p>Only the id → current version mapping can go stale. {@link #invalidate} drops an
+ * entry here and broadcasts the id on the template-invalidation fanout, which every node
+ * (this one included) answers with {@link #evict}; entries also expire after
+ * {@code ttl-ms}, which bounds staleness should a broadcast be lost. The compiled
+ * segments are kept separately by {@link TemplateVersion} hash and are never invalidated —
+ * a version's content cannot change. Hit/miss/eviction counts of the id cache are
+ * published as the standard Micrometer cache meters with {@code cache=templates}.
+ */
+@Component
+@Slf4j
+public class TemplateRenderer {
+
+    public record Compiled(Template template, String version, CompiledTemplate subject, CompiledTemplate body) {
+
+        public String renderSubject(Map<String, ?> variables) {
+            return render(subject, variables);
+        }
+
+        public String renderBody(Map<String, ?> variables) {
+            return render(body, variables);
+        }
+
+        private String render(CompiledTemplate compiled, Map<String, ?> variables) {
+            try {
+                return compiled.render(variables);
+            } catch (IllegalArgumentException e) {
+                throw new TemplateRenderException(e.getMessage() + " (template " + template.getName() + ")");
+            }
+        }
+    }
+
+    private record Entry(Compiled compiled, long loadedAt) {}
+
+    private record Segments(CompiledTemplate subject, CompiledTemplate body) {}
+
+    private final TemplateRepository templateRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final long ttlNanos;
+    private final Map<UUID, Entry> entries;
+    private final Map<String, Segments> versions;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped on every evict, so a load that raced with one is not cached
+    private long generation;
+
+    public TemplateRenderer(TemplateRepository templateRepository,
+                            RabbitTemplate rabbitTemplate,
+                            @Value("${email.template-cache.max-size:1000}") int maxSize,
+                            @Value("${email.template-cache.ttl-ms:300000}") long ttlMs,
+                            MeterRegistry meterRegistry) {
+        this.templateRepository = templateRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() <= maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+        this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Segments> eldest) {
+                return size() > maxSize;
+            }
+        };
+        new Meters(this).bindTo(meterRegistry);
+    }
+
+    public Optional<Compiled> find(UUID templateId) {
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(templateId);
+            if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos) {
+                hits.increment();
+                return Optional.of(entry.compiled());
+            }
+            if (entry != null) {
+                entries.remove(templateId);
+                evictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        // Read and parse outside the lock; a missing template is not cached
+        Optional<Compiled> loaded = templateRepository.findById(templateId).map(this::compile);
+        loaded.ifPresent(compiled -> {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(templateId, new Entry(compiled, System.nanoTime()));
+                    puts.increment();
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private Compiled compile(Template template) {
+        // Rows from before versioning are hashed on the fly until TemplateServiceImpl backfills them
+        String version = template.getCurrentVersion() != null
+                ? template.getCurrentVersion()
+                : TemplateVersion.hash(template.getId(), template.getSubject(), template.getBody());
+        Segments segments;
+        synchronized (versions) {
+            segments = versions.get(version);
+        }
+        if (segments == null) {
+            segments = new Segments(CompiledTemplate.compile(template.getSubject()),
+                    CompiledTemplate.compile(template.getBody()));
+            synchronized (versions) {
+                versions.put(version, segments);
+            }
+        }
+        return new Compiled(template, version, segments.subject(), segments.body());
+    }
+
+    /**
+     * Drops the template here and on every other node — call after it was changed or deleted.
+     */
+    public void invalidate(UUID templateId) {
+        evict(templateId);
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TEMPLATE_INVALIDATION_EXCHANGE, "", templateId.toString());
+        } catch (AmqpException e) {
+            // Other nodes catch up when their entry expires
+            log.warn("Could not broadcast invalidation of template {}: {}", templateId, e.getMessage());
+        }
+    }
+
+    // Local only — used for broadcasts received from the fanout
+    public void evict(UUID templateId) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(templateId);
+        }
+    }
+
+    private static final class Meters extends CacheMeterBinder<TemplateRenderer> {
+
+        Meters(TemplateRenderer cache) {
+            super(cache, "templates", Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            TemplateRenderer cache = getCache();
+            if (cache == null) return null;
+            synchronized (cache.entries) {
+                return (long) cache.entries.size();
+            }
+        }
+
+        @Override
+        protected long hitCount() {
+            TemplateRenderer cache = getCache();
+            return cache == null ? 0 : cache.hits.sum();
+        }
+
+        @Override
+        protected Long missCount() {
+            TemplateRenderer cache = getCache();
+            return cache == null ? null : cache.misses.sum();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            TemplateRenderer cache = getCache();
+            return cache == null ? null : cache.evictions.sum();
+        }
+
+        @Override
+        protected long putCount() {
+            TemplateRenderer cache = getCache();
+            return cache == null ? 0 : cache.puts.sum();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -2,34 +2,54 @@ package com.example.emailnotification.service.impl;
 
 import com.example.emailnotification.dto.request.CreateTemplateRequest;
 import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.entity.TemplateVersion;
 import com.example.emailnotification.repository.TemplateRepository;
+import com.example.emailnotification.repository.TemplateVersionRepository;
 import com.example.emailnotification.service.TemplateService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Templates are edited in place, but every distinct subject/body is also kept as an
+ * immutable {@link TemplateVersion}; {@code Template.currentVersion} points at the one in
+ * use and each email records the version it was rendered from.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class TemplateServiceImpl implements TemplateService {
 
     private final TemplateRepository templateRepository;
+    private final TemplateVersionRepository templateVersionRepository;
+    private final TemplateRenderer templateRenderer;
 
     @Override
+    @Transactional
     public Template createTemplate(CreateTemplateRequest request) {
         Template template = Template.builder()
                 .name(request.getName())
                 .subject(request.getSubject())
                 .body(request.getBody())
+                .defaultPriority(request.getDefaultPriority())
                 .build();
-        return templateRepository.save(template);
+        Template saved = templateRepository.save(template);
+        // The version hash needs the generated id; the managed entity is updated on commit
+        saved.setCurrentVersion(snapshot(saved));
+        return saved;
     }
 
     @Override
     public Template getTemplateById(UUID id) {
-        return templateRepository.findById(id)
+        return templateRenderer.find(id)
+                .map(TemplateRenderer.Compiled::template)
                 .orElseThrow(() -> new EntityNotFoundException("Template not found: " + id));
     }
 
@@ -40,11 +60,21 @@ public class TemplateServiceImpl implements TemplateService {
 
     @Override
     public Template updateTemplate(UUID id, CreateTemplateRequest request) {
-        Template template = getTemplateById(id);
+        // Straight from the database — the cached instance is shared and must not be modified
+        Template template = templateRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Template not found: " + id));
         template.setName(request.getName());
         template.setSubject(request.getSubject());
         template.setBody(request.getBody());
-        return templateRepository.save(template);
+        // Absent means unchanged: clients that predate priorities must not clear it
+        if (request.getDefaultPriority() != null) {
+            template.setDefaultPriority(request.getDefaultPriority());
+        }
+        // Version first: if the template save fails, an unreferenced version is harmless
+        template.setCurrentVersion(snapshot(template));
+        Template saved = templateRepository.save(template);
+        templateRenderer.invalidate(id);
+        return saved;
     }
 
     @Override
@@ -53,5 +83,26 @@ public class TemplateServiceImpl implements TemplateService {
             throw new EntityNotFoundException("Template not found: " + id);
         }
         templateRepository.deleteById(id);
+        templateRenderer.invalidate(id);
+    }
+
+    // Versions rows that predate versioning (and seeded ones) once the app is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVersions() {
+        for (Template template : templateRepository.findAll()) {
+            if (template.getCurrentVersion() != null) continue;
+            template.setCurrentVersion(snapshot(template));
+            templateRepository.save(template);
+            log.info("Template {} backfilled with version {}", template.getId(), template.getCurrentVersion());
+        }
+    }
+
+    // Stores the template's current content as a version unless it already exists
+    private String snapshot(Template template) {
+        TemplateVersion version = TemplateVersion.of(template);
+        if (!templateVersionRepository.existsById(version.getHash())) {
+            templateVersionRepository.save(version);
+        }
+        return version.getHash();
     }
 }
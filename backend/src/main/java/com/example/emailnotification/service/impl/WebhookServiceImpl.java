@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +19,7 @@ import java.util.Optional;
 public class WebhookServiceImpl implements WebhookService {
 
     private final EmailRepository emailRepository;
+    private final StatsRollup statsRollup;
 
     @Override
     public void processSendGridEvents(List<Map<String, Object>> events) {
@@ -27,15 +29,40 @@ public class WebhookServiceImpl implements WebhookService {
             log.info("Webhook event: {} for {}", eventType, emailAddress);
 
             try {
-                Optional<Email> optionalEmail = emailRepository.findByRecipientEmail(emailAddress);
+                Optional<Email> optionalEmail = findEmail(event);
                 if (optionalEmail.isPresent()) {
                     Email email = optionalEmail.get();
+                    EmailStatus previous = email.getStatus();
                     email.setStatus(EmailStatus.valueOf(eventType.toUpperCase()));
                     emailRepository.save(email);
+                    statsRollup.transitioned(email, previous);
+                } else {
+                    log.warn("Webhook event {} matches no email: sg_message_id={}", eventType, event.get("sg_message_id"));
                 }
             } catch (IllegalArgumentException e) {
                 log.warn("Unknown event type: {}", eventType);
             }
         }
     }
+
+    /**
+     * One indexed probe per event: by the email_id custom arg that batched sends tag each
+     * personalization with (primary key), else by the X-Message-Id prefix of sg_message_id
+     * (unique index). The recipient address is never used — it can match many emails.
+     */
+    private Optional<Email> findEmail(Map<String, Object> event) {
+        if (event.get("email_id") instanceof String emailId) {
+            try {
+                return emailRepository.findById(UUID.fromString(emailId));
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring malformed email_id {}", emailId);
+            }
+        }
+        if (event.get("sg_message_id") instanceof String sgMessageId && !sgMessageId.isBlank()) {
+            // "<X-Message-Id>.<per-recipient suffix>"
+            int dot = sgMessageId.indexOf('.');
+            return emailRepository.findByProviderMessageId(dot > 0 ? sgMessageId.substring(0, dot) : sgMessageId);
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,96 @@
+package com.example.emailnotification.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of growable byte buffers for building request bodies without per-request garbage.
+ * A buffer is taken with {@link #acquire} and must be handed back with {@link #release}
+ * once its bytes have been written out. Buffers that grew beyond {@code maxRetainedBytes}
+ * are dropped on release rather than pinning a rare huge allocation; when the pool is
+ * empty a fresh buffer is allocated, so callers never wait.
+ */
+public class ByteBufferPool {
+
+    /**
+     * An append-only byte array; {@link #array()} exposes the backing array (valid up to
+     * {@link #size()}) so it can be sent without copying.
+     */
+    public static final class Buffer {
+
+        private byte[] bytes;
+        private int size;
+
+        private Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        public void write(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        // Characters must be ASCII — used for the fixed parts of a payload
+        public void writeAscii(String ascii) {
+            int length = ascii.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                bytes[size++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        public void ensureCapacity(int extra) {
+            int needed = size + extra;
+            if (needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+            }
+        }
+
+        // Unchecked writes after ensureCapacity, for tight encoding loops
+        void put(byte b) {
+            bytes[size++] = b;
+        }
+
+        public byte[] array() {
+            return bytes;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        int capacity() {
+            return bytes.length;
+        }
+
+        void reset() {
+            size = 0;
+        }
+    }
+
+    private final BlockingQueue<Buffer> free;
+    private final int initialBytes;
+    private final int maxRetainedBytes;
+
+    public ByteBufferPool(int poolSize, int initialBytes, int maxRetainedBytes) {
+        this.free = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.initialBytes = initialBytes;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    public Buffer acquire() {
+        Buffer buffer = free.poll();
+        return buffer != null ? buffer : new Buffer(initialBytes);
+    }
+
+    public void release(Buffer buffer) {
+        if (buffer.capacity() > maxRetainedBytes) return;
+        buffer.reset();
+        free.offer(buffer);
+    }
+
+    public int available() {
+        return free.size();
+    }
+}
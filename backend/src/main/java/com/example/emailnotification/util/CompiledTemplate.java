@@ -0,0 +1,113 @@
+package com.example.emailnotification.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code {{placeholder}}} template parsed once into alternating literal and variable
+ * segments. Placeholders may name nested values with dots ({@code customer.name}), which
+ * are looked up through nested maps — or, failing that, as a flat key of that name.
+ * Rendering walks the segments into one presized {@link StringBuilder}: no regex, no
+ * intermediate strings, and nothing allocated per placeholder.
+ *
+ * <p>Instances are immutable and safe to share between threads.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    // Room reserved per placeholder when sizing the output buffer
+    private static final int VALUE_ESTIMATE = 16;
+
+    private final String[] literals;     // literals[i] comes before names[i]; one more literal than names
+    private final String[] names;
+    private final String[][] paths;
+    private final int sizeEstimate;
+
+    private CompiledTemplate(List<String> literals, List<String> names) {
+        this.literals = literals.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+        this.paths = new String[this.names.length][];
+        int literalLength = 0;
+        for (String literal : this.literals) literalLength += literal.length();
+        for (int i = 0; i < this.names.length; i++) {
+            paths[i] = this.names[i].split("\\.");
+        }
+        this.sizeEstimate = literalLength + VALUE_ESTIMATE * this.names.length;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int from = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, from);
+            int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) break;
+            String name = source.substring(open + OPEN.length(), close).strip();
+            literal.append(source, from, open);
+            if (name.isEmpty()) {
+                // "{{}}" is not a placeholder — keep it as text
+                literal.append(source, open, close + CLOSE.length());
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                names.add(name);
+            }
+            from = close + CLOSE.length();
+        }
+        literal.append(source, from, source.length());
+        literals.add(literal.toString());
+        return new CompiledTemplate(literals, names);
+    }
+
+    public String render(Map<String, ?> variables) {
+        StringBuilder out = new StringBuilder(sizeEstimate);
+        renderTo(out, variables);
+        return out.toString();
+    }
+
+    /**
+     * Appends the rendered template to {@code out}.
+     *
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public void renderTo(StringBuilder out, Map<String, ?> variables) {
+        out.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            Object value = resolve(variables, i);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing template variable: " + names[i]);
+            }
+            if (value instanceof CharSequence text) {
+                out.append(text);
+            } else {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    public boolean hasPlaceholders() {
+        return names.length > 0;
+    }
+
+    private Object resolve(Map<String, ?> variables, int index) {
+        if (variables == null) return null;
+        String[] path = paths[index];
+        Object current = variables;
+        for (String key : path) {
+            if (!(current instanceof Map<?, ?> map)) {
+                current = null;
+                break;
+            }
+            current = map.get(key);
+        }
+        if (current == null && path.length > 1) {
+            current = variables.get(names[index]);
+        }
+        return current;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.emailnotification.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Incremental RFC 4180 CSV writer, the counterpart of {@link CsvReader}: fields are written
+ * as they come, so a record never has to be assembled in memory. Fields holding a comma,
+ * quote or line break are quoted with their quotes doubled; a null field is left empty.
+ * Records end with CRLF.
+ */
+public class CsvWriter {
+
+    private final Writer writer;
+    private boolean firstField = true;
+
+    // Callers should pass a buffered writer — each field is several small writes
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void field(String value) throws IOException {
+        if (!firstField) writer.write(',');
+        firstField = false;
+        if (value == null || value.isEmpty()) return;
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writer.write(value, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    public void endRecord() throws IOException {
+        writer.write("\r\n");
+        firstField = true;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.emailnotification.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck). Level 0 has {@code wheelSize} buckets of
+ * {@code tickMs}; each higher level's tick is the full span of the level below, and levels
+ * are added lazily, so scheduling any delay is O(1). {@link #advance} walks time forward a
+ * tick at a time, cascading entries from coarse buckets into finer ones as they come due.
+ *
+ * <p>Entries cannot be cancelled — callers re-check their own state when an item fires.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private record Entry<T>(T item, long expiryMs) {}
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private List<Entry<T>> overdue = new ArrayList<>();
+    private long currentTime;   // always a multiple of tickMs
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        levels.add(new Level<>(tickMs, wheelSize));
+    }
+
+    public synchronized void add(T item, long expiryMs) {
+        insert(new Entry<>(item, expiryMs));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMs}.
+     *
+     * @return every item whose expiry is now in the past, in no particular order
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> due = new ArrayList<>();
+        overdue.forEach(e -> due.add(e.item()));
+        overdue = new ArrayList<>();
+
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // Level 0 bucket covering [currentTime - tick, currentTime) is now due
+            for (Entry<T> e : levels.get(0).drain(currentTime / tickMs - 1)) {
+                due.add(e.item());
+            }
+            // Coarser buckets starting exactly now are redistributed into finer levels
+            for (int i = levels.size() - 1; i >= 1; i--) {
+                Level<T> level = levels.get(i);
+                if (currentTime % level.tick == 0) {
+                    for (Entry<T> e : level.drain(currentTime / level.tick)) {
+                        insert(e);
+                    }
+                }
+            }
+        }
+        size -= due.size();
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void insert(Entry<T> entry) {
+        if (entry.expiryMs() < currentTime) {
+            overdue.add(entry);
+            return;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> below = levels.get(i - 1);
+                levels.add(new Level<>(below.tick * wheelSize, wheelSize));
+            }
+            Level<T> level = levels.get(i);
+            long slot = entry.expiryMs() / level.tick;
+            long current = currentTime / level.tick;
+            // Level 0 may use the current slot; coarser levels only future slots, since the
+            // current slot of a coarse level was already cascaded when it started
+            if ((i == 0 || slot > current) && slot < current + wheelSize) {
+                level.bucket(slot).add(entry);
+                return;
+            }
+        }
+    }
+
+    private static final class Level<T> {
+        final long tick;
+        final List<Entry<T>>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        Level(long tick, int wheelSize) {
+            this.tick = tick;
+            this.buckets = new List[wheelSize];
+        }
+
+        List<Entry<T>> bucket(long slot) {
+            int index = (int) Math.floorMod(slot, (long) buckets.length);
+            if (buckets[index] == null) buckets[index] = new ArrayList<>();
+            return buckets[index];
+        }
+
+        List<Entry<T>> drain(long slot) {
+            int index = (int) Math.floorMod(slot, (long) buckets.length);
+            List<Entry<T>> entries = buckets[index];
+            buckets[index] = null;
+            return entries == null ? List.of() : entries;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.emailnotification.util;
+
+/**
+ * Writes JSON string literals straight into a {@link ByteBufferPool.Buffer} as UTF-8,
+ * escaping as it encodes — the text is never copied into an intermediate String or
+ * char[]. Unpaired surrogates are written as U+FFFD.
+ */
+public final class JsonUtf8Writer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private JsonUtf8Writer() {
+    }
+
+    /** Writes {@code text} as a quoted, escaped JSON string; null is written as {@code null}. */
+    public static void writeString(ByteBufferPool.Buffer out, CharSequence text) {
+        if (text == null) {
+            out.writeAscii("null");
+            return;
+        }
+        int length = text.length();
+        // Worst case is 6 bytes (\\u00XX) per char plus the quotes; grow once up front
+        out.ensureCapacity(length * 3 + 2);
+        out.put((byte) '"');
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    out.put((byte) c);
+                } else {
+                    out.ensureCapacity(6 + (length - i) * 3);
+                    writeEscape(out, c);
+                }
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                if (Character.isSurrogate(c)) c = '\uFFFD';
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        out.write('"');
+    }
+
+    private static void writeEscape(ByteBufferPool.Buffer out, char c) {
+        out.put((byte) '\\');
+        switch (c) {
+            case '"' -> out.put((byte) '"');
+            case '\\' -> out.put((byte) '\\');
+            case '\n' -> out.put((byte) 'n');
+            case '\r' -> out.put((byte) 'r');
+            case '\t' -> out.put((byte) 't');
+            case '\b' -> out.put((byte) 'b');
+            case '\f' -> out.put((byte) 'f');
+            default -> {
+                out.put((byte) 'u');
+                out.put((byte) '0');
+                out.put((byte) '0');
+                out.put(HEX[c >> 4]);
+                out.put(HEX[c & 0xF]);
+            }
+        }
+    }
+}
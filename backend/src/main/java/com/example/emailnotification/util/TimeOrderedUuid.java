@@ -0,0 +1,59 @@
+package com.example.emailnotification.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * UUIDv7 (RFC 9562) generator: 48 bits of Unix milliseconds, the version, a 12-bit
+ * sequence and 62 random bits. Ids from one generator are strictly increasing — within a
+ * millisecond the sequence counts up, and if it runs out (over 4096 ids in a millisecond)
+ * or the clock steps back, the timestamp is carried forward instead of repeating. Ids
+ * stored big-endian as BINARY(16) therefore sort in creation order, so inserts append to
+ * the right edge of the primary-key index rather than landing on random pages.
+ *
+ * <p>Generation is lock-free: the last timestamp/sequence pair is one {@link AtomicLong}
+ * advanced by compare-and-set, and the random bits come from {@link ThreadLocalRandom}.
+ */
+public final class TimeOrderedUuid {
+
+    private static final TimeOrderedUuid DEFAULT = new TimeOrderedUuid(System::currentTimeMillis);
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final LongSupplier clock;
+    // (milliseconds << 12) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedUuid(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // Process-wide generator — one per node keeps all its ids in order
+    public static UUID next() {
+        return DEFAULT.generate();
+    }
+
+    public UUID generate() {
+        long now = clock.getAsLong() << 12;
+        long prev;
+        long stamp;
+        do {
+            prev = last.get();
+            stamp = now > prev ? now : prev + 1;
+        } while (!last.compareAndSet(prev, stamp));
+
+        long msb = (stamp >>> 12) << 16 | VERSION | (stamp & 0xFFF);
+        long lsb = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    // Creation time in Unix milliseconds of a version 7 id
+    public static long timestamp(UUID id) {
+        if (id.version() != 7) throw new IllegalArgumentException("Not a version 7 UUID: " + id);
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
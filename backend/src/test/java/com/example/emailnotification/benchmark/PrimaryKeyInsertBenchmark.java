@@ -0,0 +1,119 @@
+package com.example.emailnotification.benchmark;
+
+import com.example.emailnotification.util.TimeOrderedUuid;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of the three primary-key shapes an emails-like table can have: random
+ * UUIDv4 and time-ordered UUIDv7 as BINARY(16), and a BIGINT auto-increment baseline. Also
+ * prints how fast {@link TimeOrderedUuid} generates ids on 8 threads. Not a unit test — run
+ * it on its own, against in-memory H2 by default or against MySQL to see the InnoDB effect
+ * once the table outgrows the buffer pool:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.example.emailnotification.benchmark.PrimaryKeyInsertBenchmark \
+ *   -Dexec.args="5000000 jdbc:mysql://localhost:3306/emailnotification?rewriteBatchedStatements=true emailuser emailpass"
+ * </pre>
+ *
+ * Arguments: rows per key shape (default 1,000,000), JDBC URL (default in-memory H2), user,
+ * password. Tables are named {@code pk_bench_*} and dropped before each run.
+ */
+public class PrimaryKeyInsertBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String url = args.length > 1 ? args[1] : "jdbc:h2:mem:pkbench;DB_CLOSE_DELAY=-1";
+        String user = args.length > 2 ? args[2] : "sa";
+        String password = args.length > 3 ? args[3] : "";
+
+        generation(8, 2_000_000);
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            uuidInserts(connection, "pk_bench_v4", rows, UUID::randomUUID);
+            uuidInserts(connection, "pk_bench_v7", rows, TimeOrderedUuid::next);
+            autoIncrementInserts(connection, rows);
+        }
+    }
+
+    private static void generation(int threads, int perThread) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                long sink = 0;
+                for (int i = 0; i < perThread; i++) sink += TimeOrderedUuid.next().getLeastSignificantBits();
+                if (sink == 42) System.out.println();
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("UUIDv7 generation, %d threads: %.0f ids/s%n", threads, threads * perThread / seconds);
+    }
+
+    private static void uuidInserts(Connection connection, String table, int rows, Supplier<UUID> ids)
+            throws SQLException {
+        recreate(connection, table, "id BINARY(16) PRIMARY KEY");
+        ByteBuffer key = ByteBuffer.allocate(16);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, payload) VALUES (?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                UUID id = ids.get();
+                key.clear();
+                insert.setBytes(1, key.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array().clone());
+                insert.setString(2, "recipient-" + i + "@example.com");
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) flush(connection, insert);
+            }
+            flush(connection, insert);
+        }
+        report(table, rows, start);
+    }
+
+    private static void autoIncrementInserts(Connection connection, int rows) throws SQLException {
+        String table = "pk_bench_auto";
+        recreate(connection, table, "id BIGINT AUTO_INCREMENT PRIMARY KEY");
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (payload) VALUES (?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, "recipient-" + i + "@example.com");
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) flush(connection, insert);
+            }
+            flush(connection, insert);
+        }
+        report(table, rows, start);
+    }
+
+    private static void recreate(Connection connection, String table, String key) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " (" + key + ", payload VARCHAR(255) NOT NULL)");
+        }
+        connection.commit();
+    }
+
+    private static void flush(Connection connection, PreparedStatement insert) throws SQLException {
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    private static void report(String table, int rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-14s %,d rows in %.1f s: %.0f rows/s%n", table, rows, seconds, rows / seconds);
+    }
+}
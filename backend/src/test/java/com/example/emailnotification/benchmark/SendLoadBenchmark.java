@@ -0,0 +1,108 @@
+package com.example.emailnotification.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for POST /api/emails/send. Not a unit test — run it against
+ * a live instance, once per threading mode, and compare the two reports.
+ *
+ * <pre>
+ * # platform threads (default build)
+ * EMAIL_SENDER=in-memory EMAIL_SENDER_IN_MEMORY_LATENCY_MS=200 docker compose up -d --build backend
+ * # virtual threads
+ * JAVA_VERSION=21 MAVEN_PROFILES=virtual-threads VIRTUAL_THREADS=true \
+ *   EMAIL_SENDER=in-memory EMAIL_SENDER_IN_MEMORY_LATENCY_MS=200 docker compose up -d --build backend
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.example.emailnotification.benchmark.SendLoadBenchmark \
+ *   -Dexec.args="http://localhost:8080 1000 60"
+ * </pre>
+ *
+ * Arguments: base URL, concurrent clients (default 500), duration in seconds (default 60),
+ * warm-up in seconds (default 10). Prints throughput, error count and latency percentiles.
+ */
+public class SendLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl  = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients     = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int seconds     = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int warmup      = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        String auth = "Basic " + Base64.getEncoder()
+                .encodeToString("admin:admin123".getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/emails/send"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Authorization", auth)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"recipient\":\"bench@example.com\",\"subject\":\"Benchmark\",\"body\":\"Load test\"}"))
+                .build();
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(warmup).toNanos();
+        long end       = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            results.add(pool.submit(() -> {
+                long[] samples = new long[1024];
+                int n = 0;
+                while (true) {
+                    long start = System.nanoTime();
+                    if (start >= end) break;
+                    int status;
+                    try {
+                        status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long finish = System.nanoTime();
+                    if (start < warmupEnd) continue;
+                    if (status < 200 || status >= 300) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (n == samples.length) samples = Arrays.copyOf(samples, n * 2);
+                    samples[n++] = finish - start;
+                }
+                return Arrays.copyOf(samples, n);
+            }));
+        }
+
+        List<long[]> perClient = new ArrayList<>(clients);
+        for (Future<long[]> f : results) perClient.add(f.get());
+        pool.shutdown();
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d%n", clients, seconds, all.length, errors.get());
+        System.out.printf("throughput=%.1f req/s%n", all.length / (double) seconds);
+        System.out.printf("p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                all.length == 0 ? 0.0 : all[all.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
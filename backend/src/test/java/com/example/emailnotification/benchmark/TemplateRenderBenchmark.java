@@ -0,0 +1,57 @@
+package com.example.emailnotification.benchmark;
+
+import com.example.emailnotification.util.CompiledTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single-threaded throughput of {@link CompiledTemplate} on the seeded invoice template.
+ * Not a unit test — run it on its own:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.example.emailnotification.benchmark.TemplateRenderBenchmark \
+ *   -Dexec.args="5000000"
+ * </pre>
+ *
+ * Argument: renders per measured round (default 2,000,000). Prints renders per second.
+ */
+public class TemplateRenderBenchmark {
+
+    public static void main(String[] args) {
+        int renders = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        CompiledTemplate subject = CompiledTemplate.compile("{{customer.name}} - Invoice Due - {{amount}}");
+        CompiledTemplate body = CompiledTemplate.compile(
+                "Hi {{customer.name}},\n\nYour invoice of {{amount}} is due on {{due_date}}.\n\nThank you!");
+
+        // Distinct variables per recipient, as in a real batch
+        Map<String, Object>[] recipients = variables(1024);
+
+        long sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < renders; i++) {
+                Map<String, Object> vars = recipients[i & (recipients.length - 1)];
+                sink += subject.render(vars).length() + body.render(vars).length();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("round %d: %.0f emails/s (%s)%n", round, renders / seconds, round < 2 ? "warm-up" : "measured");
+        }
+        System.out.println("checksum=" + sink);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object>[] variables(int count) {
+        Map<String, Object>[] all = new Map[count];
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> vars = new HashMap<>();
+            vars.put("customer", Map.of("name", "Customer " + i));
+            vars.put("amount", "$" + (i * 7 % 1000) + ".00");
+            vars.put("due_date", "2026-11-" + (1 + i % 28));
+            all[i] = vars;
+        }
+        return all;
+    }
+}
@@ -1,24 +1,38 @@
 package com.example.emailnotification.controller;
 
+import com.example.emailnotification.dto.request.BatchRecipient;
+import com.example.emailnotification.dto.request.BatchSendEmailRequest;
+import com.example.emailnotification.dto.request.EmailListRequest;
 import com.example.emailnotification.dto.request.SendEmailRequest;
+import com.example.emailnotification.dto.response.BatchEmailResponse;
+import com.example.emailnotification.dto.response.EmailPageResponse;
 import com.example.emailnotification.dto.response.EmailResponse;
+import com.example.emailnotification.dto.response.EmailSummaryResponse;
 import com.example.emailnotification.entity.Email;
 import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.exception.ExportBusyException;
 import com.example.emailnotification.service.EmailService;
+import com.example.emailnotification.service.ExportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,13 +45,14 @@ class EmailControllerTest {
     @Autowired MockMvc mockMvc;
     @Autowired ObjectMapper objectMapper;
     @MockBean EmailService emailService;
+    @MockBean ExportService exportService;
 
     @Test @WithMockUser
-    @DisplayName("POST /api/emails/send → 200")
+    @DisplayName("POST /api/emails/send → 200 when sent inline")
     void sendEmail_returns200() throws Exception {
         UUID id = UUID.randomUUID();
         when(emailService.sendEmail(any())).thenReturn(
-                EmailResponse.builder().id(id).status("QUEUED").message("Email queued successfully").build()
+                EmailResponse.builder().id(id).status("SENT").message("Email sent successfully!").build()
         );
         mockMvc.perform(post("/api/emails/send").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -45,21 +60,126 @@ class EmailControllerTest {
                                 SendEmailRequest.builder().recipient("t@t.com").subject("Hi").body("Hello").build()
                         )))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SENT"));
+    }
+
+    @Test @WithMockUser
+    @DisplayName("POST /api/emails/send → 202 when queued")
+    void sendEmail_queued_returns202() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(emailService.sendEmail(any())).thenReturn(
+                EmailResponse.builder().id(id).status("QUEUED").message("Email queued successfully").build()
+        );
+        mockMvc.perform(post("/api/emails/send").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                SendEmailRequest.builder().recipient("t@t.com").subject("Hi").body("Hello").build()
+                        )))
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.status").value("QUEUED"))
                 .andExpect(jsonPath("$.message").value("Email queued successfully"));
     }
 
     @Test @WithMockUser
-    @DisplayName("GET /api/emails → returns list")
-    void getAllEmails() throws Exception {
-        Email e = Email.builder().id(UUID.randomUUID()).recipientEmail("a@a.com")
-                .subject("S").body("B").status(EmailStatus.SENT).retryCount(0).createdAt(LocalDateTime.now()).build();
-        when(emailService.getAllEmails()).thenReturn(List.of(e));
+    @DisplayName("POST /api/emails/send → Idempotency-Key header is passed to the service")
+    void sendEmail_idempotencyKeyHeader() throws Exception {
+        when(emailService.sendEmail(argThat(r -> "key-1".equals(r.getIdempotencyKey())))).thenReturn(
+                EmailResponse.builder().id(UUID.randomUUID()).status("SENT").message("Email sent successfully!").build()
+        );
+        mockMvc.perform(post("/api/emails/send").with(csrf())
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                SendEmailRequest.builder().recipient("t@t.com").subject("Hi").body("Hello").build()
+                        )))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SENT"));
+    }
+
+    @Test @WithMockUser
+    @DisplayName("POST /api/emails/batch → 202 with batch id")
+    void sendBatch_returns202() throws Exception {
+        UUID batchId = UUID.randomUUID();
+        when(emailService.sendBatch(any())).thenReturn(
+                BatchEmailResponse.builder().batchId(batchId).status("QUEUED").count(1)
+                        .emailIds(List.of(UUID.randomUUID())).message("Batch queued successfully").build()
+        );
+        mockMvc.perform(post("/api/emails/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                BatchSendEmailRequest.builder().subject("Hi").body("Hello")
+                                        .recipients(List.of(BatchRecipient.builder().recipient("t@t.com").build()))
+                                        .build()
+                        )))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.batchId").value(batchId.toString()))
+                .andExpect(jsonPath("$.emailIds.length()").value(1));
+    }
+
+    @Test @WithMockUser
+    @DisplayName("POST /api/emails/batch → 400 when a recipient has no subject")
+    void sendBatch_missingContent_returns400() throws Exception {
+        mockMvc.perform(post("/api/emails/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                BatchSendEmailRequest.builder().body("Hello")
+                                        .recipients(List.of(BatchRecipient.builder().recipient("t@t.com").build()))
+                                        .build()
+                        )))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test @WithMockUser
+    @DisplayName("GET /api/emails → one page of summaries, filters bound from the query")
+    void listEmails() throws Exception {
+        EmailSummaryResponse e = EmailSummaryResponse.builder().id(UUID.randomUUID()).recipientEmail("a@a.com")
+                .subject("S").status("SENT").createdAt(LocalDateTime.now()).build();
+        when(emailService.listEmails(any())).thenReturn(
+                EmailPageResponse.builder().items(List.of(e)).nextCursor("next").build());
 
-        mockMvc.perform(get("/api/emails").with(csrf()))
+        mockMvc.perform(get("/api/emails").with(csrf())
+                        .param("status", "SENT").param("from", "2026-10-01T00:00:00").param("limit", "20"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].recipientEmail").value("a@a.com"))
-                .andExpect(jsonPath("$[0].status").value("SENT"));
+                .andExpect(jsonPath("$.items[0].recipientEmail").value("a@a.com"))
+                .andExpect(jsonPath("$.items[0].status").value("SENT"))
+                .andExpect(jsonPath("$.items[0].body").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        ArgumentCaptor<EmailListRequest> captor = ArgumentCaptor.forClass(EmailListRequest.class);
+        verify(emailService).listEmails(captor.capture());
+        assertThat(captor.getValue().getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(captor.getValue().getFrom()).isEqualTo(LocalDateTime.of(2026, 10, 1, 0, 0));
+        assertThat(captor.getValue().getLimit()).isEqualTo(20);
+    }
+
+    @Test @WithMockUser
+    @DisplayName("GET /api/emails → 400 when the page size is out of range")
+    void listEmails_limitTooLarge() throws Exception {
+        mockMvc.perform(get("/api/emails").with(csrf()).param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test @WithMockUser
+    @DisplayName("GET /api/emails/export → streams the export as a CSV attachment")
+    void exportEmails_csv() throws Exception {
+        when(exportService.exportEmails(any())).thenReturn(out -> out.write("id\r\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult started = mockMvc.perform(get("/api/emails/export").param("format", "CSV").param("status", "FAILED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"emails.csv\""))
+                .andExpect(content().string("id\r\n"));
+        verify(exportService).exportEmails(argThat(r -> r.getStatus() == EmailStatus.FAILED));
+    }
+
+    @Test @WithMockUser
+    @DisplayName("GET /api/emails/export → 429 when every export slot is taken")
+    void exportEmails_busy() throws Exception {
+        when(exportService.exportEmails(any())).thenThrow(new ExportBusyException("busy"));
+        mockMvc.perform(get("/api/emails/export"))
+                .andExpect(status().isTooManyRequests());
     }
 
     @Test @WithMockUser
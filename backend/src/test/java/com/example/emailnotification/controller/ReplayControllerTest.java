@@ -0,0 +1,55 @@
+package com.example.emailnotification.controller;
+
+import com.example.emailnotification.dto.response.ReplayResponse;
+import com.example.emailnotification.service.ReplayService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReplayController.class)
+@DisplayName("ReplayController Tests")
+class ReplayControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @MockBean ReplayService replayService;
+
+    @Test @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST /api/admin/replays → 202 with the replay id")
+    void startReplay_returns202() throws Exception {
+        UUID replayId = UUID.randomUUID();
+        when(replayService.startReplay(any())).thenReturn(
+                ReplayResponse.builder().replayId(replayId).status("PENDING").build());
+
+        mockMvc.perform(post("/api/admin/replays").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"statuses\":[\"FAILED\"],\"errorContains\":\"Unauthorized\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.replayId").value(replayId.toString()))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST /api/admin/replays → 400 for a status that cannot be replayed")
+    void startReplay_sentStatus_returns400() throws Exception {
+        mockMvc.perform(post("/api/admin/replays").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"statuses\":[\"SENT\"]}"))
+                .andExpect(status().isBadRequest());
+        verify(replayService, never()).startReplay(any());
+    }
+}
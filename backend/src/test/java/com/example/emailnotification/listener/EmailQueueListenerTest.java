@@ -0,0 +1,70 @@
+package com.example.emailnotification.listener;
+
+import com.example.emailnotification.service.EmailService;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailQueueListener Unit Tests")
+class EmailQueueListenerTest {
+
+    @Mock private EmailService emailService;
+    @Mock private Channel channel;
+    private EmailQueueListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new EmailQueueListener(emailService, new SimpleMessageConverter());
+        ReflectionTestUtils.setField(listener, "ackTimeoutMs", 1000L);
+    }
+
+    private static Message message(long tag, boolean redelivered) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+        properties.setDeliveryTag(tag);
+        properties.setRedelivered(redelivered);
+        return new Message(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    @Test @DisplayName("a committed batch is acked with one multiple-ack")
+    void deliver_success() throws Exception {
+        when(emailService.deliverBatch(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+        listener.onMessages(List.of(message(1, false), message(2, false)), channel);
+
+        verify(channel).basicAck(2, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test @DisplayName("on failure only redelivered messages are dead-lettered, first-time ones are requeued")
+    void deliver_failureNacksEachMessage() throws Exception {
+        when(emailService.deliverBatch(anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("flush failed")));
+
+        listener.onMessages(List.of(message(1, false), message(2, true), message(3, false)), channel);
+
+        verify(channel).basicNack(1, false, true);
+        verify(channel).basicNack(2, false, false);
+        verify(channel).basicNack(3, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+}
@@ -1,19 +1,29 @@
 package com.example.emailnotification.repository;
 
 import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.IdempotencyKey;
 import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.service.impl.IdempotencyStore;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -26,6 +36,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 class EmailRepositoryTest {
 
     @Autowired EmailRepository emailRepository;
+    @Autowired IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired TestEntityManager entityManager;
 
     private Email save(String recipient, EmailStatus status) {
         return emailRepository.save(Email.builder()
@@ -39,45 +51,156 @@ class EmailRepositoryTest {
     }
 
     @Test
-    @DisplayName("findByRecipientEmail: returns email when found")
-    void findByRecipientEmail_found() {
-        save("alice@example.com", EmailStatus.SENT);
-        Optional<Email> result = emailRepository.findByRecipientEmail("alice@example.com");
-        assertThat(result).isPresent();
-        assertThat(result.get().getRecipientEmail()).isEqualTo("alice@example.com");
-        assertThat(result.get().getStatus()).isEqualTo(EmailStatus.SENT);
+    @DisplayName("save and findById: round-trip persists correctly")
+    void saveAndFindById() {
+        Email saved = save("x@x.com", EmailStatus.QUEUED);
+        assertThat(saved.getId()).isNotNull();
+
+        Optional<Email> found = emailRepository.findById(saved.getId());
+        assertThat(found).isPresent();
+        assertThat(found.get().getStatus()).isEqualTo(EmailStatus.QUEUED);
+        assertThat(found.get().getRecipientEmail()).isEqualTo("x@x.com");
     }
 
     @Test
-    @DisplayName("findByRecipientEmail: empty when not found")
-    void findByRecipientEmail_notFound() {
-        Optional<Email> result = emailRepository.findByRecipientEmail("nobody@example.com");
-        assertThat(result).isEmpty();
+    @DisplayName("findPendingRetries: keyset pages only emails with a pending retry")
+    void findPendingRetries_keyset() {
+        LocalDateTime base = LocalDateTime.now().plusMinutes(5);
+        for (int i = 0; i < 3; i++) {
+            Email e = save("r" + i + "@x.com", EmailStatus.FAILED);
+            e.setNextAttemptAt(base.plusMinutes(i));
+            emailRepository.save(e);
+        }
+        save("none@x.com", EmailStatus.FAILED);
+
+        LocalDateTime start = LocalDateTime.of(1970, 1, 1, 0, 0);
+        List<PendingRetry> first = emailRepository.findPendingRetries(start, new UUID(0, 0), PageRequest.of(0, 2));
+        assertThat(first).hasSize(2);
+
+        PendingRetry last = first.get(1);
+        List<PendingRetry> rest = emailRepository.findPendingRetries(last.getNextAttemptAt(), last.getId(), PageRequest.of(0, 2));
+        assertThat(rest).hasSize(1);
+        assertThat(rest.get(0).getNextAttemptAt()).isAfter(last.getNextAttemptAt());
     }
 
     @Test
-    @DisplayName("findByStatus: returns only matching emails")
-    void findByStatus_filtered() {
-        save("a@a.com", EmailStatus.SENT);
-        save("b@b.com", EmailStatus.SENT);
-        save("c@c.com", EmailStatus.FAILED);
+    @DisplayName("idempotency keys: a second insert of the same key is rejected")
+    void idempotencyKey_duplicateRejected() {
+        IdempotencyStore idempotencyStore = new IdempotencyStore(idempotencyKeyRepository, 24, 100);
+        UUID emailId = save("idem@x.com", EmailStatus.QUEUED).getId();
+        idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .key("key-1").emailId(emailId).createdAt(LocalDateTime.now()).build());
+        // A second request claims the key in its own session
+        entityManager.clear();
 
-        List<Email> sent   = emailRepository.findByStatus(EmailStatus.SENT);
-        List<Email> failed = emailRepository.findByStatus(EmailStatus.FAILED);
+        assertThatThrownBy(() -> idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .key("key-1").emailId(UUID.randomUUID()).createdAt(LocalDateTime.now()).build()))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .satisfies(e -> assertThat(idempotencyStore.isKeyTaken((DataIntegrityViolationException) e)).isTrue());
+    }
+
+    @Test
+    @DisplayName("idempotency keys: a violation on another table is not a taken key")
+    void idempotencyKey_otherViolationNotTaken() {
+        IdempotencyStore idempotencyStore = new IdempotencyStore(idempotencyKeyRepository, 24, 100);
+        DataIntegrityViolationException onEmails = new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("Duplicate entry"),
+                        "insert into emails (body,created_at,id) values (?,?,?)",
+                        ConstraintViolationException.ConstraintKind.UNIQUE, "PRIMARY"));
 
-        assertThat(sent).hasSize(2);
-        assertThat(failed).hasSize(1);
+        assertThat(idempotencyStore.isKeyTaken(onEmails)).isFalse();
+        assertThat(idempotencyStore.isKeyTaken(new DataIntegrityViolationException("no cause"))).isFalse();
     }
 
     @Test
-    @DisplayName("save and findById: round-trip persists correctly")
-    void saveAndFindById() {
-        Email saved = save("x@x.com", EmailStatus.QUEUED);
-        assertThat(saved.getId()).isNotNull();
+    @DisplayName("findScheduled: only SCHEDULED emails inside the window, in time order")
+    void findScheduled_window() {
+        LocalDateTime now = LocalDateTime.now();
+        Email soon = save("soon@x.com", EmailStatus.SCHEDULED);
+        soon.setScheduledAt(now.plusMinutes(1));
+        Email later = save("later@x.com", EmailStatus.SCHEDULED);
+        later.setScheduledAt(now.plusDays(2));
+        Email released = save("released@x.com", EmailStatus.QUEUED);
+        released.setScheduledAt(now.plusMinutes(2));
+        emailRepository.saveAll(List.of(soon, later, released));
 
-        Optional<Email> found = emailRepository.findById(saved.getId());
-        assertThat(found).isPresent();
-        assertThat(found.get().getStatus()).isEqualTo(EmailStatus.QUEUED);
-        assertThat(found.get().getRecipientEmail()).isEqualTo("x@x.com");
+        List<ScheduledEmail> window = emailRepository.findScheduled(
+                now.minusDays(1), new UUID(0, 0), now.plusMinutes(5), PageRequest.of(0, 10));
+
+        assertThat(window).extracting(ScheduledEmail::getId).containsExactly(soon.getId());
+    }
+
+    @Test
+    @DisplayName("findReplayable: filters by status, error text and template")
+    void findReplayable_filters() {
+        UUID templateId = UUID.randomUUID();
+        Email match = save("match@x.com", EmailStatus.FAILED);
+        match.setErrorMessage("SendGrid returned 401: Unauthorized");
+        match.setTemplateId(templateId);
+        Email otherError = save("other@x.com", EmailStatus.FAILED);
+        otherError.setErrorMessage("SendGrid returned 400: Bad Request");
+        otherError.setTemplateId(templateId);
+        Email sent = save("sent@x.com", EmailStatus.SENT);
+        sent.setErrorMessage("Unauthorized");
+        emailRepository.saveAll(List.of(match, otherError, sent));
+
+        List<EmailRef> page = emailRepository.findReplayable(Set.of(EmailStatus.FAILED, EmailStatus.PARKED),
+                new UUID(0, 0), "Unauthorized", null, null, templateId, PageRequest.of(0, 10));
+
+        assertThat(page).extracting(EmailRef::getId).containsExactly(match.getId());
+    }
+
+    @Test
+    @DisplayName("findReplayable: an escaped '%' in the error filter matches only itself")
+    void findReplayable_escapedWildcard() {
+        Email percent = save("percent@x.com", EmailStatus.FAILED);
+        percent.setErrorMessage("Quota 100% used");
+        Email digits = save("digits@x.com", EmailStatus.FAILED);
+        digits.setErrorMessage("Quota 1000 used");
+        emailRepository.saveAll(List.of(percent, digits));
+
+        List<EmailRef> page = emailRepository.findReplayable(Set.of(EmailStatus.FAILED),
+                new UUID(0, 0), "0!% used", null, null, null, PageRequest.of(0, 10));
+
+        assertThat(page).extracting(EmailRef::getId).containsExactly(percent.getId());
+    }
+
+    @Test
+    @DisplayName("markParked: parks only emails still QUEUED")
+    void markParked_onlyQueued() {
+        Email queued = save("queued@x.com", EmailStatus.QUEUED);
+        Email sent = save("sent@x.com", EmailStatus.SENT);
+
+        int parked = emailRepository.markParked(List.of(queued.getId(), sent.getId()), "Dead-lettered");
+
+        assertThat(parked).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findPage: newest first, seeks past the previous page's last row, applies filters")
+    void findPage_keyset() {
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            Email email = save("page" + i + "@x.com", i % 2 == 0 ? EmailStatus.SENT : EmailStatus.FAILED);
+            email.setCreatedAt(base.minusMinutes(i));
+            emailRepository.save(email);
+        }
+        // Same timestamp as page1 — the id breaks the tie
+        Email twin = save("page1-twin@x.com", EmailStatus.FAILED);
+        twin.setCreatedAt(base.minusMinutes(1));
+        emailRepository.save(twin);
+
+        List<EmailSummary> first = emailRepository.findPage(null, "page", null, null, null, null, PageRequest.of(0, 3));
+        EmailSummary last = first.get(2);
+        List<EmailSummary> rest = emailRepository.findPage(null, "page", null, null,
+                last.getCreatedAt(), last.getId(), PageRequest.of(0, 10));
+
+        assertThat(first).extracting(EmailSummary::getCreatedAt)
+                .containsExactly(base, base.minusMinutes(1), base.minusMinutes(1));
+        assertThat(rest).extracting(EmailSummary::getRecipientEmail).containsExactly("page2@x.com", "page3@x.com", "page4@x.com");
+        assertThat(emailRepository.findPage(EmailStatus.FAILED, "page1", null, null, null, null, PageRequest.of(0, 10)))
+                .extracting(EmailSummary::getRecipientEmail).containsExactlyInAnyOrder("page1@x.com", "page1-twin@x.com");
+        assertThat(emailRepository.findPage(null, "page", base.minusMinutes(3), base.minusMinutes(1), null, null,
+                PageRequest.of(0, 10))).extracting(EmailSummary::getRecipientEmail).containsExactly("page2@x.com", "page3@x.com");
     }
 }
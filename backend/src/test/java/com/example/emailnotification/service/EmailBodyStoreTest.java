@@ -0,0 +1,84 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.EmailBody;
+import com.example.emailnotification.repository.EmailBodyRepository;
+import com.example.emailnotification.service.impl.EmailBodyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailBodyStore Unit Tests")
+class EmailBodyStoreTest {
+
+    @Mock private EmailBodyRepository bodyRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    private EmailBodyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new EmailBodyStore(bodyRepository, transactionManager, 100);
+    }
+
+    private static List<Email> broadcast(int count, String body) {
+        return new ArrayList<>(IntStream.range(0, count)
+                .mapToObj(i -> Email.builder().recipientEmail("user" + i + "@x.com").subject("Hi").body(body).build())
+                .toList());
+    }
+
+    @Test @DisplayName("store: a broadcast inserts its body once, and a repeat skips the existence check")
+    @SuppressWarnings("unchecked")
+    void store_deduplicatesBroadcast() {
+        when(bodyRepository.findExistingHashes(anyCollection())).thenReturn(List.of());
+        List<Email> emails = broadcast(1000, "Same body for everyone");
+
+        store.store(emails);
+        store.store(broadcast(500, "Same body for everyone"));
+
+        String hash = EmailBody.hash("Same body for everyone");
+        assertThat(emails).allSatisfy(e -> assertThat(e.getBodyHash()).isEqualTo(hash));
+        ArgumentCaptor<List<EmailBody>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bodyRepository).saveAll(inserted.capture());
+        assertThat(inserted.getValue()).extracting(EmailBody::getHash).containsExactly(hash);
+        verify(bodyRepository, times(1)).findExistingHashes(anyCollection());
+    }
+
+    @Test @DisplayName("store: bodies already stored by another node are not inserted again")
+    void store_existingBodySkipsInsert() {
+        String hash = EmailBody.hash("Stored elsewhere");
+        when(bodyRepository.findExistingHashes(anyCollection())).thenReturn(List.of(hash));
+
+        store.store(broadcast(3, "Stored elsewhere"));
+
+        verify(bodyRepository, never()).saveAll(any());
+    }
+
+    @Test @DisplayName("resolve: reads each distinct body once and fills it in on every email")
+    void resolve_fillsBodies() {
+        String hash = EmailBody.hash("Shared");
+        List<Email> loaded = IntStream.range(0, 3)
+                .mapToObj(i -> Email.builder().recipientEmail("u" + i + "@x.com").subject("s").bodyHash(hash).build())
+                .toList();
+        when(bodyRepository.findAllById(anyCollection())).thenReturn(List.of(EmailBody.of(hash, "Shared")));
+
+        store.resolve(loaded);
+
+        assertThat(loaded).extracting(Email::getBody).containsOnly("Shared");
+        verify(bodyRepository, times(1)).findAllById(anyCollection());
+    }
+}
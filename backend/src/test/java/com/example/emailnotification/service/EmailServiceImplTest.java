@@ -1,29 +1,62 @@
 package com.example.emailnotification.service;
 
+import com.example.emailnotification.dto.request.BatchRecipient;
+import com.example.emailnotification.dto.request.BatchSendEmailRequest;
+import com.example.emailnotification.dto.request.EmailListRequest;
 import com.example.emailnotification.dto.request.SendEmailRequest;
+import com.example.emailnotification.dto.response.BatchEmailResponse;
+import com.example.emailnotification.dto.response.EmailPageResponse;
 import com.example.emailnotification.dto.response.EmailResponse;
+import com.example.emailnotification.dto.response.EmailSummaryResponse;
 import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.enums.EmailPriority;
 import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.exception.DeliveryDeferredException;
+import com.example.emailnotification.exception.InvalidCursorException;
+import com.example.emailnotification.exception.TemplateRenderException;
 import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.EmailSummary;
+import com.example.emailnotification.service.impl.DeliveryMetrics;
+import com.example.emailnotification.service.impl.EmailBatchWriter;
+import com.example.emailnotification.service.impl.EmailBodyStore;
 import com.example.emailnotification.service.impl.EmailServiceImpl;
-import com.example.emailnotification.service.impl.SendGridEmailSender;
+import com.example.emailnotification.service.impl.IdempotencyStore;
+import com.example.emailnotification.service.impl.RetryScheduler;
+import com.example.emailnotification.service.impl.ScheduledDispatcher;
+import com.example.emailnotification.service.impl.StatsRollup;
+import com.example.emailnotification.service.impl.StatusWriteBuffer;
+import com.example.emailnotification.service.impl.TemplateRenderer;
+import com.example.emailnotification.util.CompiledTemplate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +64,17 @@ import static org.mockito.Mockito.*;
 class EmailServiceImplTest {
 
     @Mock private EmailRepository emailRepository;
-    @Mock private SendGridEmailSender emailSender;   // ← matches new EmailServiceImpl
+    @Mock private EmailSender emailSender;
+    @Mock private QueueService queueService;
+    @Mock private EmailBatchWriter batchWriter;
+    @Mock private RetryScheduler retryScheduler;
+    @Mock private IdempotencyStore idempotencyStore;
+    @Mock private StatusWriteBuffer statusBuffer;
+    @Mock private TemplateRenderer templateRenderer;
+    @Mock private DeliveryMetrics deliveryMetrics;
+    @Mock private ScheduledDispatcher scheduledDispatcher;
+    @Mock private EmailBodyStore bodyStore;
+    @Mock private StatsRollup statsRollup;
     @InjectMocks private EmailServiceImpl emailService;
 
     private UUID testId;
@@ -68,11 +111,9 @@ class EmailServiceImplTest {
     @Test
     @DisplayName("sendEmail: saves then sends → status SENT")
     void sendEmail_success() throws IOException {
-        // First save returns QUEUED email with ID, second save returns SENT
-        when(emailRepository.save(any(Email.class)))
-                .thenReturn(sentEmail)
-                .thenReturn(savedEmail);
-        doNothing().when(emailSender).sendEmail(any(), any(), any());
+        // Insert returns QUEUED email with ID, then the status update is saved
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenReturn(sentEmail);
+        when(emailSender.sendEmail(any(), any(), any())).thenReturn("sg-message-1");
 
         EmailResponse response = emailService.sendEmail(
                 SendEmailRequest.builder()
@@ -83,15 +124,16 @@ class EmailServiceImplTest {
         );
 
         verify(emailSender).sendEmail("test@example.com", "Test Subject", "Test Body");
-        verify(emailRepository, times(2)).save(any());
+        verify(emailRepository).save(sentEmail);
         assertThat(response.getStatus()).isEqualTo("SENT");
         assertThat(response.getId()).isEqualTo(testId);
+        assertThat(sentEmail.getProviderMessageId()).isEqualTo("sg-message-1");
     }
 
     @Test
     @DisplayName("sendEmail: sender throws → status FAILED saved to DB")
     void sendEmail_senderFails() throws IOException {
-        when(emailRepository.save(any(Email.class))).thenReturn(sentEmail);
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenReturn(sentEmail);
         doThrow(new IOException("Connection refused"))
                 .when(emailSender).sendEmail(any(), any(), any());
 
@@ -103,8 +145,11 @@ class EmailServiceImplTest {
                         .build()
         );
 
-        // Should save twice — once QUEUED, once FAILED
-        verify(emailRepository, times(2)).save(any());
+        // Inserted QUEUED, then saved FAILED — and the failure handed to the retry scheduler
+        verify(batchWriter).persist(any(Email.class), isNull(), eq(false));
+        verify(emailRepository).save(sentEmail);
+        verify(retryScheduler).planRetry(eq(sentEmail), any(IOException.class));
+        verify(retryScheduler).schedule(sentEmail);
         assertThat(response.getStatus()).isEqualTo("FAILED");
         assertThat(response.getMessage()).contains("failed");
     }
@@ -112,8 +157,8 @@ class EmailServiceImplTest {
     @Test
     @DisplayName("sendEmail: builds email with correct fields before saving")
     void sendEmail_correctFields() throws IOException {
-        when(emailRepository.save(any(Email.class))).thenReturn(sentEmail);
-        doNothing().when(emailSender).sendEmail(any(), any(), any());
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenReturn(sentEmail);
+        when(emailSender.sendEmail(any(), any(), any())).thenReturn("sg-message-1");
 
         emailService.sendEmail(
                 SendEmailRequest.builder()
@@ -124,14 +169,336 @@ class EmailServiceImplTest {
         );
 
         ArgumentCaptor<Email> captor = ArgumentCaptor.forClass(Email.class);
-        verify(emailRepository, atLeastOnce()).save(captor.capture());
-        Email first = captor.getAllValues().get(0);
+        // The body is stored first, in its own transaction, not inside the email's
+        InOrder order = inOrder(bodyStore, batchWriter);
+        order.verify(bodyStore).store(anyCollection());
+        order.verify(batchWriter).persist(captor.capture(), isNull(), eq(false));
+        Email first = captor.getValue();
         assertThat(first.getRecipientEmail()).isEqualTo("a@b.com");
         assertThat(first.getSubject()).isEqualTo("Hello");
         assertThat(first.getStatus()).isEqualTo(EmailStatus.QUEUED);
         assertThat(first.getRetryCount()).isZero();
     }
 
+    @Test
+    @DisplayName("sendEmail: async mode writes the outbox with the email and never calls the sender")
+    void sendEmail_asyncEnqueues() throws IOException {
+        ReflectionTestUtils.setField(emailService, "asyncDelivery", true);
+        when(batchWriter.persist(any(Email.class), isNull(), eq(true))).thenReturn(sentEmail);
+
+        EmailResponse response = emailService.sendEmail(
+                SendEmailRequest.builder()
+                        .recipient("test@example.com")
+                        .subject("Test Subject")
+                        .body("Test Body")
+                        .build()
+        );
+
+        verify(batchWriter).persist(any(Email.class), isNull(), eq(true));
+        verify(emailSender, never()).sendEmail(any(), any(), any());
+        verify(emailRepository, never()).save(any());
+        assertThat(response.getStatus()).isEqualTo("QUEUED");
+    }
+
+    @Test
+    @DisplayName("sendEmail: new Idempotency-Key is claimed with the email and records the response")
+    void sendEmail_idempotencyKeyClaimed() throws IOException {
+        when(batchWriter.persist(any(Email.class), eq("key-1"), eq(false))).thenReturn(sentEmail);
+        when(emailSender.sendEmail(any(), any(), any())).thenReturn("sg-message-1");
+
+        EmailResponse response = emailService.sendEmail(requestWithKey("key-1"));
+
+        verify(idempotencyStore).complete("key-1", response);
+        assertThat(response.getStatus()).isEqualTo("SENT");
+    }
+
+    @Test
+    @DisplayName("sendEmail: recently seen Idempotency-Key returns the cached response without saving")
+    void sendEmail_idempotencyKeyCached() throws IOException {
+        EmailResponse original = EmailResponse.builder().id(testId).status("SENT").message("Email sent successfully!").build();
+        when(idempotencyStore.findRecent("key-1")).thenReturn(original);
+
+        EmailResponse response = emailService.sendEmail(requestWithKey("key-1"));
+
+        assertThat(response).isSameAs(original);
+        verify(batchWriter, never()).persist(any(), any(), anyBoolean());
+        verify(emailRepository, never()).save(any());
+        verify(emailSender, never()).sendEmail(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("sendEmail: Idempotency-Key taken in the DB returns the stored response without sending")
+    void sendEmail_idempotencyKeyStored() throws IOException {
+        EmailResponse original = EmailResponse.builder().id(testId).status("FAILED").message("Email failed: boom").build();
+        when(batchWriter.persist(any(Email.class), eq("key-1"), eq(false)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(idempotencyStore.isKeyTaken(any())).thenReturn(true);
+        when(idempotencyStore.findStored("key-1")).thenReturn(original);
+
+        EmailResponse response = emailService.sendEmail(requestWithKey("key-1"));
+
+        assertThat(response).isSameAs(original);
+        verify(emailSender, never()).sendEmail(any(), any(), any());
+        verify(idempotencyStore, never()).complete(any(), any());
+    }
+
+    @Test
+    @DisplayName("sendEmail: a constraint violation other than the Idempotency-Key is rethrown")
+    void sendEmail_otherConstraintViolationRethrown() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("body_hash");
+        when(batchWriter.persist(any(Email.class), eq("key-1"), eq(false))).thenThrow(violation);
+        when(idempotencyStore.isKeyTaken(violation)).thenReturn(false);
+
+        assertThatThrownBy(() -> emailService.sendEmail(requestWithKey("key-1"))).isSameAs(violation);
+        verify(idempotencyStore, never()).findStored(any());
+    }
+
+    @Test
+    @DisplayName("sendEmail: priority falls back to the template default, and the request overrides it")
+    void sendEmail_priorityFromTemplate() {
+        UUID templateId = UUID.randomUUID();
+        when(templateRenderer.find(templateId)).thenReturn(Optional.of(compiled(Template.builder()
+                .id(templateId).name("Password Reset").subject("S").body("B")
+                .defaultPriority(EmailPriority.HIGH).build())));
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenReturn(sentEmail);
+        SendEmailRequest request = SendEmailRequest.builder()
+                .recipient("a@b.com").subject("Reset").body("Link").templateId(templateId.toString()).build();
+
+        emailService.sendEmail(request);
+        request.setPriority(EmailPriority.LOW);
+        emailService.sendEmail(request);
+
+        ArgumentCaptor<Email> captor = ArgumentCaptor.forClass(Email.class);
+        verify(batchWriter, times(2)).persist(captor.capture(), isNull(), eq(false));
+        assertThat(captor.getAllValues()).extracting(Email::getPriority)
+                .containsExactly(EmailPriority.HIGH, EmailPriority.LOW);
+    }
+
+    @Test
+    @DisplayName("sendEmail: subject and body are rendered from the template's placeholders")
+    void sendEmail_rendersTemplate() {
+        UUID templateId = UUID.randomUUID();
+        when(templateRenderer.find(templateId)).thenReturn(Optional.of(compiled(Template.builder()
+                .id(templateId).name("Invoice Due Reminder")
+                .subject("{{customer.name}} - Invoice Due - {{amount}}")
+                .body("Hi {{customer.name}}, your invoice of {{amount}} is due.").build())));
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenReturn(sentEmail);
+
+        emailService.sendEmail(SendEmailRequest.builder()
+                .recipient("a@b.com").templateId(templateId.toString())
+                .variables(Map.of("customer", Map.of("name", "Carol"), "amount", "$120.00")).build());
+
+        ArgumentCaptor<Email> captor = ArgumentCaptor.forClass(Email.class);
+        verify(batchWriter).persist(captor.capture(), isNull(), eq(false));
+        assertThat(captor.getValue().getSubject()).isEqualTo("Carol - Invoice Due - $120.00");
+        assertThat(captor.getValue().getBody()).isEqualTo("Hi Carol, your invoice of $120.00 is due.");
+        assertThat(captor.getValue().getTemplateId()).isEqualTo(templateId);
+    }
+
+    @Test
+    @DisplayName("sendEmail: unknown template without content is rejected before anything is saved")
+    void sendEmail_unknownTemplate_throws() {
+        UUID templateId = UUID.randomUUID();
+        when(templateRenderer.find(templateId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> emailService.sendEmail(SendEmailRequest.builder()
+                .recipient("a@b.com").templateId(templateId.toString()).build()))
+                .isInstanceOf(TemplateRenderException.class);
+        verify(batchWriter, never()).persist(any(), any(), anyBoolean());
+    }
+
+    private static TemplateRenderer.Compiled compiled(Template template) {
+        return new TemplateRenderer.Compiled(template, "v1",
+                CompiledTemplate.compile(template.getSubject()), CompiledTemplate.compile(template.getBody()));
+    }
+
+    @Test
+    @DisplayName("sendEmail: future scheduledAt saves SCHEDULED and hands it to the dispatcher")
+    void sendEmail_scheduled() throws IOException {
+        LocalDateTime at = LocalDateTime.now().plusDays(3);
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenAnswer(inv -> {
+            Email e = inv.getArgument(0);
+            e.setId(testId);
+            return e;
+        });
+
+        EmailResponse response = emailService.sendEmail(SendEmailRequest.builder()
+                .recipient("a@b.com").subject("Invoice due").body("Reminder").scheduledAt(at).build());
+
+        ArgumentCaptor<Email> captor = ArgumentCaptor.forClass(Email.class);
+        verify(scheduledDispatcher).schedule(captor.capture());
+        assertThat(captor.getValue().getStatus()).isEqualTo(EmailStatus.SCHEDULED);
+        assertThat(captor.getValue().getScheduledAt()).isEqualTo(at);
+        assertThat(response.getStatus()).isEqualTo("SCHEDULED");
+        verify(emailSender, never()).sendEmail(any(), any(), any());
+        verify(queueService, never()).pushToQueue(any(), any());
+    }
+
+    private SendEmailRequest requestWithKey(String key) {
+        return SendEmailRequest.builder()
+                .recipient("test@example.com")
+                .subject("Test Subject")
+                .body("Test Body")
+                .idempotencyKey(key)
+                .build();
+    }
+
+    // ── sendBatch ─────────────────────────────────────────────────────────────
+
+    @Test
+    @DisplayName("sendBatch: persists in chunks, each with its grouped outbox messages")
+    @SuppressWarnings("unchecked")
+    void sendBatch_chunksAndGroups() {
+        ReflectionTestUtils.setField(emailService, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(emailService, "batchPublishSize", 3);
+        when(batchWriter.persistChunk(anyList(), eq(3))).thenAnswer(inv -> {
+            List<Email> chunk = inv.getArgument(0);
+            chunk.forEach(e -> e.setId(UUID.randomUUID()));
+            return chunk;
+        });
+
+        BatchEmailResponse response = emailService.sendBatch(BatchSendEmailRequest.builder()
+                .subject("Shared").body("Shared body")
+                .recipients(IntStream.range(0, 5)
+                        .mapToObj(i -> BatchRecipient.builder().recipient("r" + i + "@example.com").build())
+                        .toList())
+                .build());
+
+        ArgumentCaptor<List<Email>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, times(3)).persistChunk(chunks.capture(), eq(3));
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(chunks.getAllValues().get(0).get(0).getSubject()).isEqualTo("Shared");
+        assertThat(chunks.getAllValues().get(0).get(0).getBatchId()).isEqualTo(response.getBatchId());
+        assertThat(chunks.getAllValues().get(0).get(0).getPriority()).isEqualTo(EmailPriority.LOW);
+        assertThat(response.getCount()).isEqualTo(5);
+        assertThat(response.getEmailIds()).hasSize(5).doesNotContainNull();
+    }
+
+    // ── deliverBatch: which emails are due ──────────────────────────────────────
+
+    @Test
+    @DisplayName("deliverBatch: due automatic retry increments retryCount")
+    void deliverBatch_dueRetry() {
+        sentEmail.setStatus(EmailStatus.FAILED);
+        sentEmail.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        when(emailRepository.findAllById(List.of(testId))).thenReturn(List.of(sentEmail));
+        when(emailSender.sendBatch(List.of(sentEmail))).thenReturn(new BatchSendResult());
+        when(statusBuffer.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        emailService.deliverBatch(List.of(testId));
+
+        assertThat(sentEmail.getRetryCount()).isEqualTo(1);
+        assertThat(sentEmail.getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(sentEmail.getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("deliverBatch: ignores stale retry entry for an email not yet due")
+    void deliverBatch_staleRetry() {
+        sentEmail.setStatus(EmailStatus.FAILED);
+        sentEmail.setNextAttemptAt(LocalDateTime.now().plusMinutes(10));
+        when(emailRepository.findAllById(List.of(testId))).thenReturn(List.of(sentEmail));
+
+        emailService.deliverBatch(List.of(testId));
+
+        verify(emailSender, never()).sendBatch(any());
+        verify(statusBuffer, never()).submit(any());
+    }
+
+    @Test
+    @DisplayName("deliverBatch: skips redelivered email that is already SENT")
+    void deliverBatch_alreadySent() {
+        when(emailRepository.findAllById(List.of(testId))).thenReturn(List.of(savedEmail));
+
+        emailService.deliverBatch(List.of(testId));
+
+        verify(emailSender, never()).sendBatch(any());
+        verify(statusBuffer, never()).submit(any());
+    }
+
+    @Test
+    @DisplayName("deliverBatch: maps per-email sender results back to rows via the write-behind buffer")
+    void deliverBatch_mapsResults() {
+        Email other = Email.builder().id(UUID.randomUUID()).recipientEmail("o@example.com")
+                .subject("Test Subject").body("Test Body").status(EmailStatus.QUEUED).retryCount(0).build();
+        when(emailRepository.findAllById(List.of(testId, other.getId())))
+                .thenReturn(List.of(sentEmail, other));
+        BatchSendResult result = new BatchSendResult();
+        result.fail(other.getId(), new IOException("SendGrid error 400"));
+        when(emailSender.sendBatch(List.of(sentEmail, other))).thenReturn(result);
+        when(statusBuffer.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        emailService.deliverBatch(List.of(testId, other.getId()));
+
+        assertThat(sentEmail.getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(other.getStatus()).isEqualTo(EmailStatus.FAILED);
+        assertThat(other.getErrorMessage()).isEqualTo("SendGrid error 400");
+        verify(statusBuffer).submit(List.of(sentEmail, other));
+        verify(emailRepository, never()).saveAll(any());
+        verify(retryScheduler).planRetry(eq(other), any(IOException.class));
+        // Both were QUEUED; the rollup hears of it once the buffer has written the outcomes
+        verify(statsRollup).transitioned(sentEmail, EmailStatus.QUEUED);
+        verify(statsRollup).transitioned(other, EmailStatus.QUEUED);
+    }
+
+    @Test
+    @DisplayName("deliverBatch: throttled emails stay QUEUED and are re-queued")
+    void deliverBatch_heldEmailsRequeued() {
+        when(emailRepository.findAllById(List.of(testId))).thenReturn(List.of(sentEmail));
+        BatchSendResult result = new BatchSendResult();
+        result.defer(testId);
+        when(emailSender.sendBatch(List.of(sentEmail))).thenReturn(result);
+        when(statusBuffer.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        emailService.deliverBatch(List.of(testId));
+
+        assertThat(sentEmail.getStatus()).isEqualTo(EmailStatus.QUEUED);
+        verify(queueService).pushBatchToQueue(any(), eq(EmailPriority.NORMAL), eq(List.of(testId)));
+        verify(statusBuffer).submit(List.of(sentEmail));
+    }
+
+    @Test
+    @DisplayName("deliverBatch: held emails of different batches are re-queued under their own batch ids")
+    void deliverBatch_heldEmailsKeepBatchIds() {
+        UUID firstBatch = UUID.randomUUID();
+        UUID secondBatch = UUID.randomUUID();
+        sentEmail.setBatchId(firstBatch);
+        Email other = Email.builder().id(UUID.randomUUID()).recipientEmail("o@example.com")
+                .subject("Other").body("Other body").status(EmailStatus.QUEUED).retryCount(0)
+                .batchId(secondBatch).build();
+        when(emailRepository.findAllById(List.of(testId, other.getId()))).thenReturn(List.of(sentEmail, other));
+        BatchSendResult result = new BatchSendResult();
+        result.defer(testId);
+        result.defer(other.getId());
+        when(emailSender.sendBatch(List.of(sentEmail, other))).thenReturn(result);
+        when(statusBuffer.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        emailService.deliverBatch(List.of(testId, other.getId()));
+
+        verify(queueService).pushBatchToQueue(firstBatch, EmailPriority.NORMAL, List.of(testId));
+        verify(queueService).pushBatchToQueue(secondBatch, EmailPriority.NORMAL, List.of(other.getId()));
+    }
+
+    @Test
+    @DisplayName("sendEmail: throttled send stays QUEUED instead of FAILED")
+    void sendEmail_throttledHeld() throws IOException {
+        when(batchWriter.persist(any(Email.class), isNull(), eq(false))).thenReturn(sentEmail);
+        doThrow(new DeliveryDeferredException("Provider rate limit reached"))
+                .when(emailSender).sendEmail(any(), any(), any());
+
+        EmailResponse response = emailService.sendEmail(
+                SendEmailRequest.builder()
+                        .recipient("test@example.com")
+                        .subject("Test Subject")
+                        .body("Test Body")
+                        .build()
+        );
+
+        assertThat(response.getStatus()).isEqualTo("QUEUED");
+        assertThat(sentEmail.getStatus()).isEqualTo(EmailStatus.QUEUED);
+        verify(queueService).pushToQueue(testId, EmailPriority.NORMAL);
+    }
+
     // ── retryEmail ────────────────────────────────────────────────────────────
 
     @Test
@@ -142,7 +509,7 @@ class EmailServiceImplTest {
 
         when(emailRepository.findById(testId)).thenReturn(Optional.of(sentEmail));
         when(emailRepository.save(any())).thenReturn(sentEmail);
-        doNothing().when(emailSender).sendEmail(any(), any(), any());
+        when(emailSender.sendEmail(any(), any(), any())).thenReturn("sg-message-1");
 
         EmailResponse response = emailService.retryEmail(testId);
 
@@ -192,21 +559,56 @@ class EmailServiceImplTest {
                 .isInstanceOf(Exception.class);
     }
 
-    // ── getAllEmails ───────────────────────────────────────────────────────────
+    // ── listEmails ─────────────────────────────────────────────────────────────
+
+    private static EmailSummary summary(UUID id, LocalDateTime createdAt) {
+        EmailSummary row = mock(EmailSummary.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getCreatedAt()).thenReturn(createdAt);
+        lenient().when(row.getStatus()).thenReturn(EmailStatus.SENT);
+        return row;
+    }
+
+    @Test
+    @DisplayName("listEmails: a full page returns a cursor at its last row, which seeds the next query")
+    void listEmails_fullPage_returnsCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        EmailSummary first = summary(UUID.randomUUID(), now);
+        EmailSummary second = summary(UUID.randomUUID(), now.minusMinutes(1));
+        EmailSummary extra = summary(UUID.randomUUID(), now.minusMinutes(2));
+        when(emailRepository.findPage(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(first, second, extra));
+
+        EmailPageResponse page = emailService.listEmails(EmailListRequest.builder().limit(2).build());
+
+        assertThat(page.getItems()).extracting(EmailSummaryResponse::getId).containsExactly(first.getId(), second.getId());
+        assertThat(page.getNextCursor()).isNotNull();
+
+        LocalDateTime lastCreatedAt = second.getCreatedAt();
+        UUID lastId = second.getId();
+        emailService.listEmails(EmailListRequest.builder().status(EmailStatus.SENT).recipient("a_b%")
+                .cursor(page.getNextCursor()).limit(2).build());
+        verify(emailRepository).findPage(eq(EmailStatus.SENT), eq("a!_b!%"), isNull(), isNull(),
+                eq(lastCreatedAt), eq(lastId), eq(PageRequest.of(0, 3)));
+    }
 
     @Test
-    @DisplayName("getAllEmails: returns all emails")
-    void getAllEmails_returnsAll() {
-        Email second = Email.builder().id(UUID.randomUUID()).recipientEmail("b@b.com")
-                .subject("s").body("b").status(EmailStatus.SENT).retryCount(0).build();
-        when(emailRepository.findAll()).thenReturn(List.of(sentEmail, second));
-        assertThat(emailService.getAllEmails()).hasSize(2);
+    @DisplayName("listEmails: the last page has no cursor")
+    void listEmails_lastPage_noCursor() {
+        EmailSummary only = summary(UUID.randomUUID(), LocalDateTime.now());
+        when(emailRepository.findPage(any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of(only));
+
+        EmailPageResponse page = emailService.listEmails(EmailListRequest.builder().limit(2).build());
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
     }
 
     @Test
-    @DisplayName("getAllEmails: empty list when no emails")
-    void getAllEmails_empty() {
-        when(emailRepository.findAll()).thenReturn(List.of());
-        assertThat(emailService.getAllEmails()).isEmpty();
+    @DisplayName("listEmails: a tampered cursor is rejected")
+    void listEmails_invalidCursor() {
+        assertThatThrownBy(() -> emailService.listEmails(EmailListRequest.builder().cursor("not-a-cursor").build()))
+                .isInstanceOf(InvalidCursorException.class);
+        verify(emailRepository, never()).findPage(any(), any(), any(), any(), any(), any(), any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.dto.request.EmailExportRequest;
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.EmailBody;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.enums.ExportFormat;
+import com.example.emailnotification.exception.ExportBusyException;
+import com.example.emailnotification.repository.EmailBodyRepository;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.service.impl.ExportServiceImpl;
+import com.example.emailnotification.util.CsvReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@DisplayName("ExportServiceImpl Tests")
+class ExportServiceImplTest {
+
+    @Autowired EmailRepository emailRepository;
+    @Autowired EmailBodyRepository bodyRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private Email save(String recipient, EmailStatus status, int minute) {
+        return emailRepository.saveAndFlush(Email.builder()
+                .recipientEmail(recipient).subject("Hi, " + recipient).body("Body")
+                .status(status).retryCount(minute).createdAt(T0.plusMinutes(minute)).build());
+    }
+
+    private ExportServiceImpl service(int maxConcurrent, int segmentRows) {
+        return new ExportServiceImpl(jdbcTemplate, objectMapper, maxConcurrent, segmentRows, 100);
+    }
+
+    private byte[] export(ExportServiceImpl service, EmailExportRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportEmails(request).writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("NDJSON: filtered rows, oldest first, across several segments")
+    void ndjson_segments() throws IOException {
+        for (int i = 0; i < 5; i++) save("user" + i + "@x.com", EmailStatus.SENT, i);
+        save("failed@x.com", EmailStatus.FAILED, 10);
+
+        byte[] body = export(service(2, 2), EmailExportRequest.builder().status(EmailStatus.SENT).build());
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) rows.add(objectMapper.readTree(line));
+        assertThat(rows).extracting(row -> row.get("recipientEmail").asText())
+                .containsExactly("user0@x.com", "user1@x.com", "user2@x.com", "user3@x.com", "user4@x.com");
+        assertThat(rows.get(3).get("retryCount").isNumber()).isTrue();
+        assertThat(rows.get(0).get("createdAt").asText()).isEqualTo("2026-01-01T12:00");
+        assertThat(rows.get(0).has("sentAt")).isFalse();
+    }
+
+    @Test
+    @DisplayName("CSV with gzip and bodies: header, quoted fields, body content")
+    void csv_gzip_withBody() throws IOException {
+        Email email = save("quote@x.com", EmailStatus.QUEUED, 0);
+        bodyRepository.saveAndFlush(EmailBody.of(email.getBodyHash(), "Body"));
+
+        byte[] body = export(service(2, 100), EmailExportRequest.builder()
+                .format(ExportFormat.CSV).gzip(true).includeBody(true).recipient("quote").build());
+
+        CsvReader csv = new CsvReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8));
+        List<String> header = csv.next();
+        List<String> row = csv.next();
+        assertThat(header).startsWith("id", "recipientEmail", "subject").endsWith("body");
+        assertThat(row.get(0)).isEqualTo(email.getId().toString());
+        assertThat(row.get(2)).isEqualTo("Hi, quote@x.com");
+        assertThat(row.get(header.size() - 1)).isEqualTo("Body");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("a second export is refused while the only slot is taken, and allowed after")
+    void slots() throws IOException {
+        ExportServiceImpl service = service(1, 100);
+        ExportService.EmailExport first = service.exportEmails(new EmailExportRequest());
+
+        assertThatThrownBy(() -> service.exportEmails(new EmailExportRequest()))
+                .isInstanceOf(ExportBusyException.class);
+
+        first.writeTo(new ByteArrayOutputStream());
+        assertThat(service.exportEmails(new EmailExportRequest())).isNotNull();
+    }
+}
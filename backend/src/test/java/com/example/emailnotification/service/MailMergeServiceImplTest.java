@@ -0,0 +1,126 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.dto.response.MailMergeResponse;
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.MergeFormat;
+import com.example.emailnotification.exception.TemplateRenderException;
+import com.example.emailnotification.service.impl.EmailBatchWriter;
+import com.example.emailnotification.service.impl.EmailBodyStore;
+import com.example.emailnotification.service.impl.MailMergeServiceImpl;
+import com.example.emailnotification.service.impl.TemplateRenderer;
+import com.example.emailnotification.util.CompiledTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MailMergeServiceImpl Unit Tests")
+class MailMergeServiceImplTest {
+
+    @Mock private TemplateRenderer templateRenderer;
+    @Mock private EmailBatchWriter batchWriter;
+    @Mock private EmailBodyStore bodyStore;
+    private MailMergeServiceImpl mailMergeService;
+
+    private final UUID templateId = UUID.randomUUID();
+    private final List<List<Email>> persisted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Chunks of 2 rows
+        mailMergeService = new MailMergeServiceImpl(templateRenderer, batchWriter, bodyStore, new ObjectMapper(), 2, 100);
+        Template template = Template.builder().id(templateId).name("Invoice")
+                .subject("{{customer.name}} - Invoice Due").body("Hi {{customer.name}}, you owe {{amount}}.").build();
+        lenient().when(templateRenderer.find(templateId)).thenReturn(Optional.of(new TemplateRenderer.Compiled(template, "v1",
+                CompiledTemplate.compile(template.getSubject()), CompiledTemplate.compile(template.getBody()))));
+        // The service reuses its chunk list, so keep a copy of each call
+        lenient().when(batchWriter.persistChunk(anyList(), eq(100))).thenAnswer(inv -> {
+            persisted.add(List.copyOf(inv.<List<Email>>getArgument(0)));
+            return inv.getArgument(0);
+        });
+    }
+
+    private MailMergeResponse merge(MergeFormat format, String file) throws Exception {
+        UUID jobId = mailMergeService.startMerge(templateId, format,
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8))).getJobId();
+        for (int i = 0; i < 200; i++) {
+            MailMergeResponse response = mailMergeService.getMerge(jobId);
+            if (response.getFinishedAt() != null) return response;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("merge did not finish");
+    }
+
+    @Test
+    @DisplayName("CSV: rows are rendered and persisted in chunks; bad rows are rejected")
+    void csv_rendersInChunks() throws Exception {
+        MailMergeResponse response = merge(MergeFormat.CSV, """
+                email,customer.name,amount
+                a@x.com,"Smith, Al",$10
+                not-an-address,Bob,$20
+                c@x.com,Carol,$30
+                d@x.com,Dave
+                e@x.com,Eve,$50
+                """);
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getRowsRead()).isEqualTo(5);
+        assertThat(response.getQueued()).isEqualTo(3);
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getErrors()).containsExactly(
+                "line 3: missing or invalid recipient",
+                "line 5: Missing template variable: amount (template Invoice)");
+        assertThat(persisted).extracting(List::size).containsExactly(2, 1);
+        Email first = persisted.get(0).get(0);
+        assertThat(first.getSubject()).isEqualTo("Smith, Al - Invoice Due");
+        assertThat(first.getBody()).isEqualTo("Hi Smith, Al, you owe $10.");
+        assertThat(first.getBatchId()).isEqualTo(response.getJobId());
+        assertThat(first.getTemplateId()).isEqualTo(templateId);
+        assertThat(first.getPriority()).isEqualTo(EmailPriority.LOW);
+    }
+
+    @Test
+    @DisplayName("JSONL: nested variables objects and flat fields both work")
+    void jsonl_variables() throws Exception {
+        MailMergeResponse response = merge(MergeFormat.JSONL, """
+                {"recipient":"a@x.com","variables":{"customer":{"name":"Al"},"amount":10}}
+                {"recipient":"b@x.com","customer.name":"Bo","amount":"$20"}
+                not json
+                """);
+
+        assertThat(response.getQueued()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(1);
+        assertThat(persisted.get(0)).extracting(Email::getBody)
+                .containsExactly("Hi Al, you owe 10.", "Hi Bo, you owe $20.");
+    }
+
+    @Test
+    @DisplayName("startMerge: unknown template is rejected up front")
+    void unknownTemplate() {
+        UUID missing = UUID.randomUUID();
+        when(templateRenderer.find(missing)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> mailMergeService.startMerge(missing, MergeFormat.CSV,
+                new ByteArrayInputStream(new byte[0]))).isInstanceOf(TemplateRenderException.class);
+        verifyNoInteractions(batchWriter);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.config.RabbitMQConfig;
+import com.example.emailnotification.dto.message.EmailBatchMessage;
+import com.example.emailnotification.entity.OutboxMessage;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.repository.OutboxMessageRepository;
+import com.example.emailnotification.service.impl.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OutboxRelay Unit Tests")
+class OutboxRelayTest {
+
+    private final OutboxMessageRepository repository = mock(OutboxMessageRepository.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations channel = mock(RabbitOperations.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(repository, rabbitTemplate, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "confirmTimeoutMs", 1000L);
+        when(rabbitTemplate.invoke(any())).thenAnswer(inv ->
+                inv.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(channel));
+    }
+
+    @Test
+    @DisplayName("publishes single and batch messages to their lanes, then deletes them after the confirm")
+    void relay_publishesAndDeletes() {
+        UUID single = UUID.randomUUID();
+        UUID batchId = UUID.randomUUID();
+        List<UUID> batchIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<OutboxMessage> rows = List.of(OutboxMessage.of(null, EmailPriority.HIGH, List.of(single)),
+                OutboxMessage.of(batchId, EmailPriority.LOW, batchIds));
+        when(repository.lockNextBatch(any())).thenReturn(rows);
+
+        relay.relay();
+
+        verify(channel).convertAndSend(RabbitMQConfig.EXCHANGE, RabbitMQConfig.ROUTING_KEY_HIGH, single.toString());
+        verify(channel).convertAndSend(RabbitMQConfig.EXCHANGE, RabbitMQConfig.ROUTING_KEY_LOW,
+                new EmailBatchMessage(batchId, batchIds));
+        verify(channel).waitForConfirmsOrDie(1000L);
+        verify(repository).deleteAllInBatch(rows);
+    }
+
+    @Test
+    @DisplayName("keeps the rows when the broker does not confirm")
+    void relay_brokerFailure_keepsRows() {
+        when(repository.lockNextBatch(any())).thenReturn(List.of(OutboxMessage.of(null, EmailPriority.NORMAL, List.of(UUID.randomUUID()))));
+        doThrow(new AmqpException("nack")).when(channel).waitForConfirmsOrDie(anyLong());
+
+        relay.relay();
+
+        verify(repository, never()).deleteAllInBatch(any());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.service.impl.ProviderCircuitBreaker;
+import com.example.emailnotification.service.impl.ProviderCircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProviderCircuitBreaker Unit Tests")
+class ProviderCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(2000);
+
+    // window 10, minimum 4 calls, 50% failures, 50% slow calls over 1s, open for openMs, 2 probes
+    private ProviderCircuitBreaker breaker(long openMs) {
+        return new ProviderCircuitBreaker(10, 4, 50, 50, 1000, openMs, 2, new SimpleMeterRegistry());
+    }
+
+    @Test @DisplayName("stays closed until the minimum number of calls is reached")
+    void belowMinimumCalls_staysClosed() {
+        ProviderCircuitBreaker breaker = breaker(60_000);
+        for (int i = 0; i < 3; i++) breaker.onFailure(FAST);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test @DisplayName("opens on failure rate and refuses calls while open")
+    void failureRate_opensCircuit() {
+        ProviderCircuitBreaker breaker = breaker(60_000);
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.isAcceptingTraffic()).isFalse();
+    }
+
+    @Test @DisplayName("opens on slow-call rate even when every call succeeds")
+    void slowCallRate_opensCircuit() {
+        ProviderCircuitBreaker breaker = breaker(60_000);
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(FAST);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test @DisplayName("half-open admits only the probes and closes when they succeed")
+    void halfOpen_closesAfterHealthyProbes() throws InterruptedException {
+        ProviderCircuitBreaker breaker = breaker(20);
+        for (int i = 0; i < 4; i++) breaker.onFailure(FAST);
+        Thread.sleep(30);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test @DisplayName("a failed probe opens the circuit again")
+    void halfOpen_reopensOnFailedProbe() throws InterruptedException {
+        ProviderCircuitBreaker breaker = breaker(20);
+        for (int i = 0; i < 4; i++) breaker.onFailure(FAST);
+        Thread.sleep(30);
+
+        breaker.tryAcquirePermission();
+        breaker.tryAcquirePermission();
+        breaker.onSuccess(FAST);
+        breaker.onFailure(FAST);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+}
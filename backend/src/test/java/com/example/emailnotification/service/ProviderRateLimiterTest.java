@@ -0,0 +1,61 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.service.impl.ProviderRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProviderRateLimiter Unit Tests")
+class ProviderRateLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ProviderRateLimiter limiter(double initialRate, long maxWaitMs) {
+        return new ProviderRateLimiter(initialRate, 1, 100, 10, 0.5, 500, maxWaitMs, registry);
+    }
+
+    @Test @DisplayName("fast responses ramp the rate up additively")
+    void fastResponses_increaseRate() {
+        ProviderRateLimiter limiter = limiter(10, 0);
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(limiter.getRate()).isEqualTo(11.0);
+    }
+
+    @Test @DisplayName("slow responses hold the rate")
+    void slowResponses_holdRate() {
+        ProviderRateLimiter limiter = limiter(10, 0);
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(900));
+        assertThat(limiter.getRate()).isEqualTo(10.0);
+    }
+
+    @Test @DisplayName("throttling halves the rate once per episode and counts it")
+    void throttled_decreasesMultiplicatively() {
+        ProviderRateLimiter limiter = limiter(40, 0);
+        limiter.onThrottled(null);
+        limiter.onThrottled(null);   // same episode — no second cut
+        assertThat(limiter.getRate()).isEqualTo(20.0);
+        assertThat(registry.get("email.provider.throttled").tag("source", "provider").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test @DisplayName("Retry-After pauses the bucket and holds callers")
+    void retryAfter_blocksAcquire() {
+        ProviderRateLimiter limiter = limiter(100, 20);
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.onThrottled(Duration.ofSeconds(30));
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(registry.get("email.provider.throttled").tag("source", "limiter").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test @DisplayName("rate is exposed as a gauge")
+    void rate_exposedAsGauge() {
+        limiter(25, 0);
+        assertThat(registry.get("email.provider.rate").gauge().value()).isEqualTo(25.0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.dto.request.ReplayRequest;
+import com.example.emailnotification.dto.response.ReplayResponse;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailRef;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.service.impl.EmailBatchWriter;
+import com.example.emailnotification.service.impl.ReplayServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplayServiceImpl Unit Tests")
+class ReplayServiceImplTest {
+
+    @Mock private EmailRepository emailRepository;
+    @Mock private EmailBatchWriter batchWriter;
+    private ReplayServiceImpl replayService;
+
+    @BeforeEach
+    void setUp() {
+        // Chunks of 2, fast enough that pacing does not slow the test down
+        replayService = new ReplayServiceImpl(emailRepository, batchWriter, 2, 10_000);
+    }
+
+    private static EmailRef ref(UUID id, EmailPriority priority) {
+        return new EmailRef() {
+            public UUID getId() { return id; }
+            public EmailPriority getPriority() { return priority; }
+        };
+    }
+
+    private ReplayResponse await(UUID replayId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ReplayResponse response = replayService.getReplay(replayId);
+            if (response.getFinishedAt() != null) return response;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("replay did not finish");
+    }
+
+    @Test
+    @DisplayName("startReplay: pages by id, escapes the error filter and requeues each chunk per lane")
+    void startReplay_requeuesChunksPerLane() throws Exception {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        when(emailRepository.findReplayable(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(ref(a, EmailPriority.HIGH), ref(b, EmailPriority.LOW)))
+                .thenReturn(List.of(ref(c, EmailPriority.HIGH)))
+                .thenReturn(List.of());
+        when(batchWriter.requeue(anyList(), any(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        ReplayResponse response = await(replayService.startReplay(
+                ReplayRequest.builder().statuses(List.of(EmailStatus.FAILED)).errorContains("401_%").build()).getReplayId());
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getReplayed()).isEqualTo(3);
+        EnumSet<EmailStatus> failed = EnumSet.of(EmailStatus.FAILED);
+        verify(batchWriter).requeue(List.of(a), failed, EmailPriority.HIGH);
+        verify(batchWriter).requeue(List.of(b), failed, EmailPriority.LOW);
+        verify(batchWriter).requeue(List.of(c), failed, EmailPriority.HIGH);
+        // The second page starts after the last id of the first
+        verify(emailRepository).findReplayable(eq(failed), eq(b), eq("401!_!%"), isNull(), isNull(), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("startReplay: stops once the limit is reached")
+    void startReplay_honoursLimit() throws Exception {
+        UUID a = UUID.randomUUID();
+        when(emailRepository.findReplayable(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(ref(a, EmailPriority.NORMAL)));
+        when(batchWriter.requeue(anyList(), any(), any())).thenReturn(1);
+
+        ReplayResponse response = await(replayService.startReplay(
+                ReplayRequest.builder().limit(1).build()).getReplayId());
+
+        assertThat(response.getReplayed()).isEqualTo(1);
+        verify(emailRepository, times(1)).findReplayable(any(), any(), any(), any(), any(), any(), any());
+    }
+}
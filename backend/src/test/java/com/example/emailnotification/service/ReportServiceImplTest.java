@@ -1,9 +1,9 @@
 package com.example.emailnotification.service;
 
 import com.example.emailnotification.dto.response.EmailStatisticsResponse;
-import com.example.emailnotification.entity.Email;
 import com.example.emailnotification.enums.EmailStatus;
-import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.EmailDailyStatRepository;
+import com.example.emailnotification.repository.StatusTotal;
 import com.example.emailnotification.service.impl.ReportServiceImpl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,39 +22,44 @@ import static org.mockito.Mockito.when;
 @DisplayName("ReportService Unit Tests")
 class ReportServiceImplTest {
 
-    @Mock private EmailRepository emailRepository;
+    @Mock private EmailDailyStatRepository statRepository;
     @InjectMocks private ReportServiceImpl reportService;
 
-    private Email makeEmail(EmailStatus status) {
-        return Email.builder().id(UUID.randomUUID()).recipientEmail("t@t.com")
-                .subject("s").body("b").status(status).retryCount(0).build();
+    private static StatusTotal total(EmailStatus status, long count) {
+        return new StatusTotal() {
+            @Override public EmailStatus getStatus() { return status; }
+            @Override public long getCount() { return count; }
+        };
     }
 
-    @Test @DisplayName("getStatistics: correct counts and success rate")
+    @Test @DisplayName("getStatistics: correct counts and success rate from the rollup")
     void getStatistics_correctCalc() {
-        when(emailRepository.findAll()).thenReturn(List.of(
-                makeEmail(EmailStatus.SENT), makeEmail(EmailStatus.SENT),
-                makeEmail(EmailStatus.SENT), makeEmail(EmailStatus.FAILED), makeEmail(EmailStatus.QUEUED)
+        when(statRepository.sumByStatus(null)).thenReturn(List.of(
+                total(EmailStatus.SENT, 3), total(EmailStatus.FAILED, 1), total(EmailStatus.QUEUED, 1)
         ));
-        EmailStatisticsResponse result = reportService.getStatistics();
+        EmailStatisticsResponse result = reportService.getStatistics(null);
         assertThat(result.getTotalSent()).isEqualTo(3);
         assertThat(result.getTotalFailed()).isEqualTo(1);
+        assertThat(result.getTotalEmails()).isEqualTo(5);
         assertThat(result.getSuccessRate()).isEqualTo(60.0);
     }
 
     @Test @DisplayName("getStatistics: zero emails → 0% success rate")
     void getStatistics_noEmails() {
-        when(emailRepository.findAll()).thenReturn(Collections.emptyList());
-        EmailStatisticsResponse result = reportService.getStatistics();
+        when(statRepository.sumByStatus(null)).thenReturn(Collections.emptyList());
+        EmailStatisticsResponse result = reportService.getStatistics(null);
         assertThat(result.getTotalSent()).isZero();
         assertThat(result.getSuccessRate()).isZero();
     }
 
-    @Test @DisplayName("getStatistics: all sent → 100% success rate")
-    void getStatistics_allSent() {
-        when(emailRepository.findAll()).thenReturn(List.of(
-                makeEmail(EmailStatus.SENT), makeEmail(EmailStatus.SENT)
+    @Test @DisplayName("getStatistics: other statuses count towards the total only")
+    void getStatistics_otherStatuses() {
+        UUID templateId = UUID.randomUUID();
+        when(statRepository.sumByStatus(templateId)).thenReturn(List.of(
+                total(EmailStatus.SENT, 2), total(EmailStatus.SCHEDULED, 1), total(EmailStatus.PARKED, 1)
         ));
-        assertThat(reportService.getStatistics().getSuccessRate()).isEqualTo(100.0);
+        EmailStatisticsResponse result = reportService.getStatistics(templateId);
+        assertThat(result.getTotalEmails()).isEqualTo(4);
+        assertThat(result.getSuccessRate()).isEqualTo(50.0);
     }
 }
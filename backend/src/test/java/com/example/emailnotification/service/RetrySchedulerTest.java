@@ -0,0 +1,99 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.exception.EmailDeliveryException;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.service.impl.RetryScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RetryScheduler Unit Tests")
+class RetrySchedulerTest {
+
+    @Mock private EmailRepository emailRepository;
+    @Mock private QueueService queueService;
+    private RetryScheduler retryScheduler;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        retryScheduler = new RetryScheduler(emailRepository, queueService, 1000, meterRegistry);
+        ReflectionTestUtils.setField(retryScheduler, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryScheduler, "baseDelayMs", 60_000L);
+        ReflectionTestUtils.setField(retryScheduler, "maxDelayMs", 600_000L);
+    }
+
+    private Email failed(int retryCount) {
+        return Email.builder().id(UUID.randomUUID()).recipientEmail("t@t.com").subject("s").body("b")
+                .status(EmailStatus.FAILED).retryCount(retryCount).build();
+    }
+
+    @Test @DisplayName("planRetry: transient failure → backoff with jitter in [base/2, base]")
+    void planRetry_transient() {
+        Email email = failed(0);
+        LocalDateTime before = LocalDateTime.now();
+        retryScheduler.planRetry(email, new IOException("Connection reset"));
+
+        assertThat(email.getNextAttemptAt())
+                .isAfterOrEqualTo(before.plusSeconds(30))
+                .isBeforeOrEqualTo(LocalDateTime.now().plusSeconds(60));
+    }
+
+    @Test @DisplayName("planRetry: backoff doubles per attempt")
+    void planRetry_exponential() {
+        Email email = failed(1);
+        LocalDateTime before = LocalDateTime.now();
+        retryScheduler.planRetry(email, new EmailDeliveryException(503, "unavailable", null));
+
+        assertThat(email.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(60));
+    }
+
+    @Test @DisplayName("planRetry: permanent 4xx is not retried")
+    void planRetry_permanent() {
+        Email email = failed(0);
+        retryScheduler.planRetry(email, new EmailDeliveryException(400, "bad address", null));
+        assertThat(email.getNextAttemptAt()).isNull();
+    }
+
+    @Test @DisplayName("planRetry: stops after max attempts")
+    void planRetry_exhausted() {
+        Email email = failed(2);
+        retryScheduler.planRetry(email, new IOException("timeout"));
+        assertThat(email.getNextAttemptAt()).isNull();
+    }
+
+    @Test @DisplayName("tick: a retry the broker refuses stays in the wheel")
+    void tick_publishFailureKeepsRetry() {
+        Email email = failed(0);
+        email.setPriority(EmailPriority.HIGH);
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(5));
+        retryScheduler.rebuild();
+        retryScheduler.schedule(email);
+        doThrow(new AmqpConnectException(new IOException("connection refused")))
+                .when(queueService).pushToQueue(any(), any());
+
+        retryScheduler.tick();
+
+        verify(queueService).pushToQueue(email.getId(), EmailPriority.HIGH);
+        assertThat(meterRegistry.get("email.retry.pending").gauge().value()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailPriority;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.ScheduledEmail;
+import com.example.emailnotification.service.impl.EmailBatchWriter;
+import com.example.emailnotification.service.impl.ScheduledDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScheduledDispatcher Unit Tests")
+class ScheduledDispatcherTest {
+
+    @Mock private EmailRepository emailRepository;
+    @Mock private EmailBatchWriter batchWriter;
+    private ScheduledDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // 10 ms ticks, 60 s window
+        dispatcher = new ScheduledDispatcher(emailRepository, batchWriter, 10, 60_000, new SimpleMeterRegistry());
+    }
+
+    private static ScheduledEmail row(UUID id, LocalDateTime at, EmailPriority priority) {
+        return new ScheduledEmail() {
+            public UUID getId() { return id; }
+            public LocalDateTime getScheduledAt() { return at; }
+            public EmailPriority getPriority() { return priority; }
+        };
+    }
+
+    private Email scheduled(LocalDateTime at) {
+        return Email.builder().id(UUID.randomUUID()).recipientEmail("t@t.com").subject("s").body("b")
+                .status(EmailStatus.SCHEDULED).priority(EmailPriority.NORMAL).scheduledAt(at).build();
+    }
+
+    @Test @DisplayName("start: overdue emails in the first window are released on the next tick")
+    void start_releasesOverdue() {
+        UUID overdue = UUID.randomUUID();
+        when(emailRepository.findScheduled(any(), any(), any(), any()))
+                .thenReturn(List.of(row(overdue, LocalDateTime.now().minusMinutes(5), EmailPriority.HIGH)));
+
+        dispatcher.start();
+        dispatcher.tick();
+
+        verify(batchWriter).releaseScheduled(List.of(overdue), EmailPriority.HIGH);
+    }
+
+    @Test @DisplayName("schedule: email inside the loaded window fires when due, one beyond it waits for its window")
+    void schedule_onlyWithinWindow() throws InterruptedException {
+        when(emailRepository.findScheduled(any(), any(), any(), any())).thenReturn(List.of());
+        dispatcher.start();
+
+        Email soon = scheduled(LocalDateTime.now().plusNanos(30_000_000));
+        Email later = scheduled(LocalDateTime.now().plusDays(7));
+        dispatcher.schedule(soon);
+        dispatcher.schedule(later);
+
+        dispatcher.tick();
+        verify(batchWriter, never()).releaseScheduled(anyList(), any());
+
+        Thread.sleep(60);
+        dispatcher.tick();
+        verify(batchWriter).releaseScheduled(List.of(soon.getId()), EmailPriority.NORMAL);
+        verify(batchWriter, never()).releaseScheduled(eq(List.of(later.getId())), any());
+    }
+
+    @Test @DisplayName("an email seen by both a send and a window load is released once")
+    void duplicateAdds_releasedOnce() {
+        Email email = scheduled(LocalDateTime.now().minusSeconds(1));
+        when(emailRepository.findScheduled(any(), any(), any(), any()))
+                .thenReturn(List.of(row(email.getId(), email.getScheduledAt(), EmailPriority.NORMAL)));
+
+        dispatcher.start();
+        dispatcher.schedule(email);
+        dispatcher.tick();
+
+        verify(batchWriter).releaseScheduled(List.of(email.getId()), EmailPriority.NORMAL);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.exception.EmailDeliveryException;
+import com.example.emailnotification.service.impl.ProviderCircuitBreaker;
+import com.example.emailnotification.service.impl.ProviderRateLimiter;
+import com.example.emailnotification.service.impl.SendGridEmailSender;
+import com.example.emailnotification.util.ByteBufferPool;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SendGridEmailSender Unit Tests")
+class SendGridEmailSenderTest {
+
+    @Mock private CloseableHttpClient httpClient;
+    @Mock private ProviderRateLimiter rateLimiter;
+    @Mock private ProviderCircuitBreaker circuitBreaker;
+    private SendGridEmailSender sender;
+
+    @BeforeEach
+    void setUp() {
+        sender = new SendGridEmailSender(httpClient, new ByteBufferPool(2, 64, 1 << 20), rateLimiter, circuitBreaker);
+        ReflectionTestUtils.setField(sender, "fromEmail", "noreply@x.com");
+        ReflectionTestUtils.setField(sender, "apiKey", "key");
+        ReflectionTestUtils.setField(sender, "apiHost", "http://sendgrid.test");
+        when(circuitBreaker.tryAcquirePermission()).thenReturn(true);
+        when(rateLimiter.tryAcquire()).thenReturn(true);
+    }
+
+    private static Email email(String to) {
+        return Email.builder().id(UUID.randomUUID()).recipientEmail(to).subject("s").body("b").build();
+    }
+
+    private static CloseableHttpResponse response(int status, String messageId) throws Exception {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        StatusLine statusLine = mock(StatusLine.class);
+        when(statusLine.getStatusCode()).thenReturn(status);
+        when(response.getStatusLine()).thenReturn(statusLine);
+        when(response.getEntity()).thenReturn(new StringEntity(status >= 400 ? "{\"errors\":[]}" : ""));
+        lenient().when(response.getFirstHeader("X-Message-Id"))
+                .thenReturn(messageId != null ? new BasicHeader("X-Message-Id", messageId) : null);
+        return response;
+    }
+
+    @Test @DisplayName("sendBatch: a 4xx on a multi-personalization request falls back to one email per request")
+    void sendBatch_rejectedRequestSentOneByOne() throws Exception {
+        Email good = email("good@x.com");
+        Email bad = email("bad@@x.com");
+        CloseableHttpResponse rejected = response(400, null);
+        CloseableHttpResponse accepted = response(202, "msg-1");
+        CloseableHttpResponse rejectedAgain = response(400, null);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(rejected, accepted, rejectedAgain);
+
+        BatchSendResult result = sender.sendBatch(List.of(good, bad));
+
+        verify(httpClient, times(3)).execute(any(HttpUriRequest.class));
+        assertThat(result.isAccepted(good.getId())).isTrue();
+        assertThat(result.getMessageIds()).containsEntry(good.getId(), "msg-1");
+        assertThat(result.getFailures()).containsOnlyKeys(bad.getId());
+        assertThat(((EmailDeliveryException) result.getFailures().get(bad.getId())).getStatusCode()).isEqualTo(400);
+    }
+
+    @Test @DisplayName("sendBatch: a 5xx fails the whole request without splitting it")
+    void sendBatch_serverErrorNotSplit() throws Exception {
+        Email first = email("a@x.com");
+        Email second = email("b@x.com");
+        CloseableHttpResponse error = response(503, null);
+        when(error.getAllHeaders()).thenReturn(new BasicHeader[0]);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(error);
+
+        BatchSendResult result = sender.sendBatch(List.of(first, second));
+
+        verify(httpClient, times(1)).execute(any(HttpUriRequest.class));
+        assertThat(result.getFailures()).containsOnlyKeys(first.getId(), second.getId());
+        verify(circuitBreaker).onFailure(anyLong());
+    }
+
+    @Test @DisplayName("sendEmail: an unexpected error gives the circuit permission back")
+    void sendEmail_unexpectedErrorReleasesPermission() throws Exception {
+        when(httpClient.execute(any(HttpUriRequest.class))).thenThrow(new IllegalStateException("pool shut down"));
+
+        assertThatThrownBy(() -> sender.sendEmail("a@x.com", "s", "b")).isInstanceOf(IllegalStateException.class);
+
+        verify(circuitBreaker).releasePermission();
+        verify(circuitBreaker, never()).onSuccess(anyLong());
+        verify(circuitBreaker, never()).onFailure(anyLong());
+    }
+
+    @Test @DisplayName("sendEmail: a recorded outcome does not release the permission again")
+    void sendEmail_recordedOutcomeKeepsPermission() throws Exception {
+        CloseableHttpResponse accepted = response(202, "msg-1");
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(accepted);
+
+        assertThat(sender.sendEmail("a@x.com", "s", "b")).isEqualTo("msg-1");
+
+        verify(circuitBreaker).onSuccess(anyLong());
+        verify(circuitBreaker, never()).releasePermission();
+    }
+}
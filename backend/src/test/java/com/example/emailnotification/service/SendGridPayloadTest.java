@@ -0,0 +1,51 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.service.impl.SendGridPayload;
+import com.example.emailnotification.util.ByteBufferPool;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SendGridPayload Unit Tests")
+class SendGridPayloadTest {
+
+    private final ByteBufferPool pool = new ByteBufferPool(1, 64, 1 << 20);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode parse(ByteBufferPool.Buffer buffer) throws Exception {
+        return objectMapper.readTree(buffer.array(), 0, buffer.size());
+    }
+
+    @Test @DisplayName("writeSingle: one personalization with subject and body escaped")
+    void writeSingle() throws Exception {
+        ByteBufferPool.Buffer buffer = pool.acquire();
+        SendGridPayload.writeSingle(buffer, "noreply@x.com", "bob@x.com", "Say \"hi\"", "<p>Hi Bob</p>\n");
+
+        JsonNode mail = parse(buffer);
+        assertThat(mail.at("/from/email").asText()).isEqualTo("noreply@x.com");
+        assertThat(mail.at("/subject").asText()).isEqualTo("Say \"hi\"");
+        assertThat(mail.at("/personalizations/0/to/0/email").asText()).isEqualTo("bob@x.com");
+        assertThat(mail.at("/content/0/type").asText()).isEqualTo("text/plain");
+        assertThat(mail.at("/content/0/value").asText()).isEqualTo("<p>Hi Bob</p>\n");
+    }
+
+    @Test @DisplayName("writeMulti: one personalization per email, tagged with its id")
+    void writeMulti() throws Exception {
+        Email a = Email.builder().id(UUID.randomUUID()).recipientEmail("a@x.com").subject("S").body("B").build();
+        Email b = Email.builder().id(UUID.randomUUID()).recipientEmail("b@x.com").subject("S").body("B").build();
+        ByteBufferPool.Buffer buffer = pool.acquire();
+        SendGridPayload.writeMulti(buffer, "noreply@x.com", List.of(a, b));
+
+        JsonNode personalizations = parse(buffer).get("personalizations");
+        assertThat(personalizations).hasSize(2);
+        assertThat(personalizations.at("/1/to/0/email").asText()).isEqualTo("b@x.com");
+        assertThat(personalizations.at("/1/custom_args/email_id").asText()).isEqualTo(b.getId().toString());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.entity.EmailDailyStat;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailDailyStatRepository;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.repository.StatusTotal;
+import com.example.emailnotification.repository.TemplateVersionCount;
+import com.example.emailnotification.service.impl.StatsRollup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+// Deltas count after commit, so each step commits for real
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("StatsRollup Tests")
+class StatsRollupTest {
+
+    @Autowired EmailRepository emailRepository;
+    @Autowired EmailDailyStatRepository statRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    private StatsRollup rollup;
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+    private final UUID templateId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        rollup = new StatsRollup(emailRepository, statRepository, jdbcTemplate, transactionManager, 2, 0);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        statRepository.deleteAll();
+        emailRepository.deleteAll();
+    }
+
+    private Email save(EmailStatus status, UUID template) {
+        return save(status, template, null);
+    }
+
+    private Email save(EmailStatus status, UUID template, String version) {
+        return emailRepository.save(Email.builder()
+                .recipientEmail("t@x.com").subject("Hi").body("Body").status(status)
+                .templateId(template).templateVersion(version).retryCount(0).createdAt(DAY.atTime(10, 0)).build());
+    }
+
+    private List<EmailDailyStat> rows() {
+        return statRepository.findAll().stream().filter(row -> row.getEmails() != 0).toList();
+    }
+
+    @Test
+    @DisplayName("created and transitioned deltas are summed per cell and flushed as increments")
+    void incrementalUpdates() {
+        Email first = save(EmailStatus.QUEUED, templateId);
+        Email second = save(EmailStatus.QUEUED, null);
+        rollup.created(List.of(first, second));
+        rollup.flush();
+
+        first.setStatus(EmailStatus.SENT);
+        rollup.transitioned(first, EmailStatus.QUEUED);
+        rollup.flush();
+
+        assertThat(rows()).extracting(EmailDailyStat::getDay, EmailDailyStat::getStatus,
+                        EmailDailyStat::getTemplateId, EmailDailyStat::getEmails)
+                .containsExactlyInAnyOrder(
+                        tuple(DAY, EmailStatus.SENT, templateId, 1L),
+                        tuple(DAY, EmailStatus.QUEUED, EmailDailyStat.NO_TEMPLATE, 1L));
+        // The template's QUEUED cell went back to zero
+        assertThat(statRepository.sumByStatus(templateId))
+                .extracting(StatusTotal::getStatus, StatusTotal::getCount)
+                .containsExactlyInAnyOrder(tuple(EmailStatus.SENT, 1L), tuple(EmailStatus.QUEUED, 0L));
+    }
+
+    @Test
+    @DisplayName("a delta registered in a rolled-back transaction is never counted")
+    void rolledBackNotCounted() {
+        Email email = save(EmailStatus.QUEUED, templateId);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            rollup.created(List.of(email));
+            status.setRollbackOnly();
+        });
+        rollup.flush();
+
+        assertThat(rows()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("reconcileAll rebuilds drifted days from the emails table and leaves correct ones alone")
+    void reconcileCorrectsDrift() {
+        save(EmailStatus.SENT, templateId);
+        save(EmailStatus.SENT, templateId);
+        save(EmailStatus.FAILED, null);
+        rollup.reconcileAll();
+        assertThat(rows()).hasSize(2);
+
+        // Drift: a lost delta and a row for a day without emails
+        jdbcTemplate.update("UPDATE email_daily_stats SET email_count = 7 WHERE status = 'SENT'");
+        statRepository.save(new EmailDailyStat(DAY.minusDays(30), EmailStatus.QUEUED, EmailDailyStat.NO_TEMPLATE,
+                EmailDailyStat.NO_VERSION, 4));
+        rollup.reconcileAll();
+
+        assertThat(rows()).extracting(EmailDailyStat::getStatus, EmailDailyStat::getEmails)
+                .containsExactlyInAnyOrder(tuple(EmailStatus.SENT, 2L), tuple(EmailStatus.FAILED, 1L));
+        assertThat(rollup.reconcile(DAY)).isFalse();
+    }
+
+    @Test
+    @DisplayName("reconcile drops the day's unflushed deltas instead of adding them to the recount")
+    void reconcileDropsPendingDeltas() {
+        Email email = save(EmailStatus.QUEUED, templateId);
+        rollup.created(List.of(email));
+
+        assertThat(rollup.reconcile(DAY)).isTrue();
+        rollup.flush();
+
+        assertThat(rows()).extracting(EmailDailyStat::getStatus, EmailDailyStat::getEmails)
+                .containsExactly(tuple(EmailStatus.QUEUED, 1L));
+    }
+
+    @Test
+    @DisplayName("the rollup keeps template versions apart and sums them per version and status")
+    void perTemplateVersion() {
+        Email v1 = save(EmailStatus.QUEUED, templateId, "v1");
+        rollup.created(List.of(v1, save(EmailStatus.FAILED, templateId, "v1"), save(EmailStatus.SENT, templateId, "v2"),
+                save(EmailStatus.SENT, null)));
+        v1.setStatus(EmailStatus.SENT);
+        emailRepository.save(v1);
+        rollup.transitioned(v1, EmailStatus.QUEUED);
+        rollup.flush();
+
+        assertThat(statRepository.sumByTemplateVersion(templateId))
+                .extracting(TemplateVersionCount::getTemplateVersion, TemplateVersionCount::getStatus,
+                        TemplateVersionCount::getCount)
+                .containsExactlyInAnyOrder(
+                        tuple("v1", EmailStatus.SENT, 1L),
+                        tuple("v1", EmailStatus.FAILED, 1L),
+                        tuple("v2", EmailStatus.SENT, 1L));
+        // Matches a recount from the emails table
+        assertThat(rollup.reconcile(DAY)).isFalse();
+    }
+
+    @Test
+    @DisplayName("reconcile waits for a committed transaction's deltas instead of counting its change twice")
+    void reconcileWaitsForCommittingDeltas() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    // Runs after the commit but before the rollup's own afterCommit
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            committed.countDown();
+                            try {
+                                release.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    });
+                    rollup.created(List.of(save(EmailStatus.QUEUED, templateId)));
+                }));
+        assertThat(committed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Boolean> reconcile = CompletableFuture.supplyAsync(() -> rollup.reconcile(DAY));
+        Thread.sleep(200);
+        assertThat(reconcile).isNotDone();
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        reconcile.get(5, TimeUnit.SECONDS);
+        rollup.flush();
+
+        assertThat(rows()).extracting(EmailDailyStat::getStatus, EmailDailyStat::getEmails)
+                .containsExactly(tuple(EmailStatus.QUEUED, 1L));
+    }
+}
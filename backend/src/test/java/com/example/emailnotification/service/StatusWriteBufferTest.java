@@ -0,0 +1,85 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.service.impl.StatusWriteBuffer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "email.status-buffer.max-items=2",
+    // Flushes happen only where the tests call them or fill the buffer
+    "email.status-buffer.flush-ms=3600000"
+})
+@Import(StatusWriteBuffer.class)
+@DisplayName("StatusWriteBuffer Integration Tests")
+class StatusWriteBufferTest {
+
+    @Autowired StatusWriteBuffer buffer;
+    @Autowired EmailRepository emailRepository;
+    @Autowired EntityManager entityManager;
+
+    // Detached, like the emails a consumer hands over after delivery
+    private Email queued(String recipient) {
+        Email email = emailRepository.saveAndFlush(Email.builder()
+                .recipientEmail(recipient).subject("S").body("B")
+                .status(EmailStatus.QUEUED).retryCount(0).createdAt(LocalDateTime.now())
+                .build());
+        entityManager.detach(email);
+        return email;
+    }
+
+    @Test
+    @DisplayName("holds updates until flushed, then writes them and completes the future")
+    void flush_writesBatch() {
+        Email sent = queued("a@x.com");
+        sent.setStatus(EmailStatus.SENT);
+        sent.setSentAt(LocalDateTime.now());
+
+        CompletableFuture<Void> written = buffer.submit(List.of(sent));
+        assertThat(written).isNotDone();
+
+        buffer.flush();
+        entityManager.clear();
+
+        assertThat(written).isCompleted();
+        assertThat(emailRepository.findById(sent.getId()).orElseThrow().getStatus()).isEqualTo(EmailStatus.SENT);
+    }
+
+    @Test
+    @DisplayName("flushes immediately once max-items updates are pending")
+    void submit_fullBufferFlushes() {
+        Email failed = queued("b@x.com");
+        failed.setStatus(EmailStatus.FAILED);
+        failed.setErrorMessage("x".repeat(300));
+        failed.setRetryCount(2);
+        Email sent = queued("c@x.com");
+        sent.setStatus(EmailStatus.SENT);
+
+        CompletableFuture<Void> written = buffer.submit(List.of(failed, sent));
+        entityManager.clear();
+
+        assertThat(written).isCompleted();
+        Email stored = emailRepository.findById(failed.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(EmailStatus.FAILED);
+        assertThat(stored.getRetryCount()).isEqualTo(2);
+        assertThat(stored.getErrorMessage()).hasSize(255);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.config.RabbitMQConfig;
+import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.repository.TemplateRepository;
+import com.example.emailnotification.service.impl.TemplateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TemplateRenderer Unit Tests")
+class TemplateRendererTest {
+
+    @Mock private TemplateRepository templateRepository;
+    @Mock private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private TemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        renderer = new TemplateRenderer(templateRepository, rabbitTemplate, 2, 60_000, meterRegistry);
+    }
+
+    private UUID stored(String body) {
+        UUID id = UUID.randomUUID();
+        lenient().when(templateRepository.findById(id)).thenReturn(Optional.of(
+                Template.builder().id(id).name("T").subject("Hi {{name}}").body(body).build()));
+        return id;
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "templates").tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Test @DisplayName("find: loads and compiles once, then serves from the cache")
+    void find_cachesCompiled() {
+        UUID id = stored("Hello {{name}}");
+
+        renderer.find(id);
+        String body = renderer.find(id).orElseThrow().renderBody(Map.of("name", "Alice"));
+
+        assertThat(body).isEqualTo("Hello Alice");
+        verify(templateRepository, times(1)).findById(id);
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(1);
+    }
+
+    @Test @DisplayName("find: least recently used entry is evicted beyond max-size")
+    void find_boundedLru() {
+        UUID a = stored("a"), b = stored("b"), c = stored("c");
+
+        renderer.find(a);
+        renderer.find(b);
+        renderer.find(a);
+        renderer.find(c);   // evicts b
+        renderer.find(b);
+
+        verify(templateRepository, times(1)).findById(a);
+        verify(templateRepository, times(2)).findById(b);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "templates").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test @DisplayName("invalidate: drops the entry locally and broadcasts it to other nodes")
+    void invalidate_broadcasts() {
+        UUID id = stored("v1");
+        renderer.find(id);
+
+        renderer.invalidate(id);
+        renderer.find(id);
+
+        verify(templateRepository, times(2)).findById(id);
+        verify(rabbitTemplate).convertAndSend(RabbitMQConfig.TEMPLATE_INVALIDATION_EXCHANGE, "", id.toString());
+    }
+}
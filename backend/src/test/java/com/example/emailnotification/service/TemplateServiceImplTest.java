@@ -2,8 +2,13 @@ package com.example.emailnotification.service;
 
 import com.example.emailnotification.dto.request.CreateTemplateRequest;
 import com.example.emailnotification.entity.Template;
+import com.example.emailnotification.entity.TemplateVersion;
+import com.example.emailnotification.enums.EmailPriority;
 import com.example.emailnotification.repository.TemplateRepository;
+import com.example.emailnotification.repository.TemplateVersionRepository;
+import com.example.emailnotification.service.impl.TemplateRenderer;
 import com.example.emailnotification.service.impl.TemplateServiceImpl;
+import com.example.emailnotification.util.CompiledTemplate;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +29,8 @@ import static org.mockito.Mockito.*;
 class TemplateServiceImplTest {
 
     @Mock private TemplateRepository templateRepository;
+    @Mock private TemplateVersionRepository templateVersionRepository;
+    @Mock private TemplateRenderer templateRenderer;
     @InjectMocks private TemplateServiceImpl templateService;
 
     private UUID templateId;
@@ -47,13 +54,14 @@ class TemplateServiceImplTest {
 
     @Test @DisplayName("getTemplateById: found")
     void getById_found() {
-        when(templateRepository.findById(templateId)).thenReturn(Optional.of(template));
+        when(templateRenderer.find(templateId)).thenReturn(Optional.of(new TemplateRenderer.Compiled(template, "v1",
+                CompiledTemplate.compile(template.getSubject()), CompiledTemplate.compile(template.getBody()))));
         assertThat(templateService.getTemplateById(templateId).getId()).isEqualTo(templateId);
     }
 
     @Test @DisplayName("getTemplateById: not found throws")
     void getById_notFound() {
-        when(templateRepository.findById(templateId)).thenReturn(Optional.empty());
+        when(templateRenderer.find(templateId)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> templateService.getTemplateById(templateId))
                 .isInstanceOf(EntityNotFoundException.class);
     }
@@ -74,6 +82,50 @@ class TemplateServiceImplTest {
         Template result = templateService.updateTemplate(templateId, update);
         assertThat(result.getName()).isEqualTo("New");
         assertThat(result.getSubject()).isEqualTo("NewSub");
+        verify(templateRenderer).invalidate(templateId);
+    }
+
+    @Test @DisplayName("updateTemplate: a request without a priority keeps the stored one")
+    void updateTemplate_keepsPriority() {
+        template.setDefaultPriority(EmailPriority.HIGH);
+        CreateTemplateRequest update = CreateTemplateRequest.builder()
+                .name("New").subject("NewSub").body("NewBody").build();
+        when(templateRepository.findById(templateId)).thenReturn(Optional.of(template));
+        when(templateRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        assertThat(templateService.updateTemplate(templateId, update).getDefaultPriority()).isEqualTo(EmailPriority.HIGH);
+
+        update.setDefaultPriority(EmailPriority.LOW);
+        assertThat(templateService.updateTemplate(templateId, update).getDefaultPriority()).isEqualTo(EmailPriority.LOW);
+    }
+
+    @Test @DisplayName("updateTemplate: stores a new version and points the template at it")
+    void updateTemplate_createsVersion() {
+        CreateTemplateRequest update = CreateTemplateRequest.builder()
+                .name("New").subject("NewSub").body("NewBody").build();
+        when(templateRepository.findById(templateId)).thenReturn(Optional.of(template));
+        when(templateRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        Template result = templateService.updateTemplate(templateId, update);
+
+        String expected = TemplateVersion.hash(templateId, "NewSub", "NewBody");
+        assertThat(result.getCurrentVersion()).isEqualTo(expected)
+                .isNotEqualTo(TemplateVersion.hash(templateId, "Welcome {{name}}", "Hi {{name}}"));
+        verify(templateVersionRepository).save(argThat(v -> v.getHash().equals(expected)
+                && v.getTemplateId().equals(templateId) && v.getBody().equals("NewBody")));
+    }
+
+    @Test @DisplayName("updateTemplate: unchanged content reuses the existing version")
+    void updateTemplate_sameContent_reusesVersion() {
+        CreateTemplateRequest update = CreateTemplateRequest.builder()
+                .name("Renamed").subject("Welcome {{name}}").body("Hi {{name}}").build();
+        when(templateRepository.findById(templateId)).thenReturn(Optional.of(template));
+        when(templateRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(templateVersionRepository.existsById(any())).thenReturn(true);
+
+        templateService.updateTemplate(templateId, update);
+
+        verify(templateVersionRepository, never()).save(any());
     }
 
     @Test @DisplayName("updateTemplate: not found throws")
@@ -0,0 +1,68 @@
+package com.example.emailnotification.service;
+
+import com.example.emailnotification.entity.Email;
+import com.example.emailnotification.enums.EmailStatus;
+import com.example.emailnotification.repository.EmailRepository;
+import com.example.emailnotification.service.impl.StatsRollup;
+import com.example.emailnotification.service.impl.WebhookServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookService Unit Tests")
+class WebhookServiceImplTest {
+
+    @Mock private EmailRepository emailRepository;
+    @Mock private StatsRollup statsRollup;
+    @InjectMocks private WebhookServiceImpl webhookService;
+
+    private Email email;
+
+    @BeforeEach
+    void setUp() {
+        email = Email.builder().id(UUID.randomUUID()).recipientEmail("t@t.com")
+                .subject("s").status(EmailStatus.QUEUED).providerMessageId("Gf4yH5rTSOWAtyxN1sNafQ").build();
+    }
+
+    @Test @DisplayName("processSendGridEvents: resolves by the X-Message-Id prefix of sg_message_id")
+    void resolvesByProviderMessageId() {
+        when(emailRepository.findByProviderMessageId("Gf4yH5rTSOWAtyxN1sNafQ")).thenReturn(Optional.of(email));
+
+        webhookService.processSendGridEvents(List.of(Map.of("email", "t@t.com", "event", "sent",
+                "sg_message_id", "Gf4yH5rTSOWAtyxN1sNafQ.filterdrecv-5645d9c87f-78xgx-1-5D8B8A0D-2.0")));
+
+        assertThat(email.getStatus()).isEqualTo(EmailStatus.SENT);
+        verify(emailRepository).save(email);
+        verify(statsRollup).transitioned(email, EmailStatus.QUEUED);
+    }
+
+    @Test @DisplayName("processSendGridEvents: the email_id custom arg of a batched send wins")
+    void resolvesByEmailIdCustomArg() {
+        when(emailRepository.findById(email.getId())).thenReturn(Optional.of(email));
+
+        webhookService.processSendGridEvents(List.of(Map.of("email", "t@t.com", "event", "failed",
+                "email_id", email.getId().toString(), "sg_message_id", "Shared.filterdrecv-1")));
+
+        assertThat(email.getStatus()).isEqualTo(EmailStatus.FAILED);
+        verify(emailRepository, never()).findByProviderMessageId(any());
+    }
+
+    @Test @DisplayName("processSendGridEvents: events without an id are skipped, not matched by recipient")
+    void skipsUncorrelatedEvents() {
+        webhookService.processSendGridEvents(List.of(Map.of("email", "t@t.com", "event", "sent")));
+
+        verifyNoInteractions(emailRepository);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.emailnotification.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CompiledTemplate Unit Tests")
+class CompiledTemplateTest {
+
+    @Test @DisplayName("placeholders are replaced, including nested paths and repeats")
+    void rendersPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile(
+                "Hi {{customer.name}},\nYour invoice of {{ amount }} is due. Thanks, {{customer.name}}!");
+
+        String rendered = template.render(Map.of("customer", Map.of("name", "Carol"), "amount", 120));
+
+        assertThat(rendered).isEqualTo("Hi Carol,\nYour invoice of 120 is due. Thanks, Carol!");
+    }
+
+    @Test @DisplayName("a dotted name also matches a flat key of that name")
+    void flatDottedKey() {
+        assertThat(CompiledTemplate.compile("{{customer.name}}").render(Map.of("customer.name", "Dave")))
+                .isEqualTo("Dave");
+    }
+
+    @Test @DisplayName("text without complete placeholders is left as it is")
+    void literalText() {
+        CompiledTemplate template = CompiledTemplate.compile("No vars {{}} here {{unclosed");
+
+        assertThat(template.hasPlaceholders()).isFalse();
+        assertThat(template.render(null)).isEqualTo("No vars {{}} here {{unclosed");
+    }
+
+    @Test @DisplayName("a placeholder without a value is an error")
+    void missingVariable() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{customer.name}}");
+
+        assertThatThrownBy(() -> template.render(Map.of("customer", "Carol")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("customer.name");
+    }
+}
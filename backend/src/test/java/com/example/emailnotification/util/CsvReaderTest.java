@@ -0,0 +1,42 @@
+package com.example.emailnotification.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CsvReader Unit Tests")
+class CsvReaderTest {
+
+    @Test @DisplayName("quoted fields keep commas, line breaks and doubled quotes")
+    void quotedFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "recipient,name\r\na@x.com,\"Smith, \"\"Al\"\"\"\r\nb@x.com,\"two\nlines\"\n"));
+
+        assertThat(csv.next()).containsExactly("recipient", "name");
+        assertThat(csv.getLine()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("a@x.com", "Smith, \"Al\"");
+        assertThat(csv.next()).containsExactly("b@x.com", "two\nlines");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test @DisplayName("last record without a trailing newline and empty fields")
+    void lastRecordAndEmptyFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,,c\n,b,"));
+
+        assertThat(csv.next()).containsExactly("a", "", "c");
+        assertThat(csv.next()).containsExactly("", "b", "");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test @DisplayName("a quote left open at end of input is an error")
+    void unterminatedQuote() {
+        CsvReader csv = new CsvReader(new StringReader("a,\"open"));
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("line 1");
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.emailnotification.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CsvWriter Unit Tests")
+class CsvWriterTest {
+
+    @Test @DisplayName("quotes only fields that need it and doubles embedded quotes")
+    void quoting() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        csv.field("a@x.com");
+        csv.field("Smith, \"Al\"");
+        csv.field(null);
+        csv.endRecord();
+        csv.field("two\nlines");
+        csv.field("");
+        csv.endRecord();
+
+        assertThat(out.toString()).isEqualTo("a@x.com,\"Smith, \"\"Al\"\"\",\r\n\"two\nlines\",\r\n");
+    }
+
+    @Test @DisplayName("what it writes CsvReader reads back unchanged")
+    void roundTrip() throws IOException {
+        String[] fields = {"plain", "comma,inside", "\"quoted\"", "cr\r\nlf", "trailing\""};
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        for (String field : fields) csv.field(field);
+        csv.endRecord();
+
+        assertThat(new CsvReader(new StringReader(out.toString())).next()).containsExactly(fields);
+    }
+}
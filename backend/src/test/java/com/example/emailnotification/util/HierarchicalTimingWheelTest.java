@@ -0,0 +1,63 @@
+package com.example.emailnotification.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HierarchicalTimingWheel Unit Tests")
+class HierarchicalTimingWheelTest {
+
+    @Test @DisplayName("items fire once their expiry has passed, not before")
+    void firesAtExpiry() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        wheel.add("a", 25);
+
+        assertThat(wheel.advance(20)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test @DisplayName("past-due items are returned on the next advance")
+    void overdueFiresImmediately() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        wheel.add("late", 500);
+        assertThat(wheel.advance(1000)).containsExactly("late");
+    }
+
+    @Test @DisplayName("far-future items cascade through overflow levels")
+    void cascadesAcrossLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        wheel.add("level2", 1_234);   // beyond level 0 (40ms) and level 1 (160ms) spans
+
+        assertThat(wheel.advance(1_230)).isEmpty();
+        assertThat(wheel.advance(1_240)).containsExactly("level2");
+    }
+
+    @Test @DisplayName("random schedule: every item fires within one tick after its expiry")
+    void randomSchedule() {
+        long tick = 10;
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(tick, 16, 0);
+        Random random = new Random(42);
+        List<Long> expiries = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long expiry = random.nextInt(200_000);
+            expiries.add(expiry);
+            wheel.add(expiry, expiry);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 200_000 + tick; now += 7) {
+            for (Long expiry : wheel.advance(now)) {
+                assertThat(now).isGreaterThan(expiry).isLessThanOrEqualTo(expiry + tick + 7);
+                fired.add(expiry);
+            }
+        }
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(expiries);
+        assertThat(wheel.size()).isZero();
+    }
+}
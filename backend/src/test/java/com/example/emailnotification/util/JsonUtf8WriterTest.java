@@ -0,0 +1,47 @@
+package com.example.emailnotification.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JsonUtf8Writer Unit Tests")
+class JsonUtf8WriterTest {
+
+    private final ByteBufferPool pool = new ByteBufferPool(1, 4, 1024);
+
+    private String write(String text) {
+        ByteBufferPool.Buffer buffer = pool.acquire();
+        JsonUtf8Writer.writeString(buffer, text);
+        String json = new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8);
+        pool.release(buffer);
+        return json;
+    }
+
+    @Test @DisplayName("quotes, backslashes and control characters are escaped")
+    void escapes() {
+        assertThat(write("a\"b\\c\nd\te\u0001")).isEqualTo("\"a\\\"b\\\\c\\nd\\te\\u0001\"");
+    }
+
+    @Test @DisplayName("non-ASCII text round-trips through a JSON parser")
+    void unicodeRoundTrip() throws Exception {
+        String text = "Grüße — 請求書 📧 ".repeat(500);
+
+        assertThat(new ObjectMapper().readValue(write(text), String.class)).isEqualTo(text);
+    }
+
+    @Test @DisplayName("released buffers are reused, oversized ones dropped")
+    void poolReuse() {
+        ByteBufferPool.Buffer small = pool.acquire();
+        pool.release(small);
+        assertThat(pool.acquire()).isSameAs(small);
+
+        ByteBufferPool.Buffer grown = pool.acquire();
+        grown.ensureCapacity(4096);
+        pool.release(grown);
+        assertThat(pool.available()).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.emailnotification.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TimeOrderedUuid Unit Tests")
+class TimeOrderedUuidTest {
+
+    // Orders like MySQL compares BINARY(16): unsigned, most significant byte first
+    private static final Comparator<UUID> BYTE_ORDER = Comparator
+            .comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    @Test
+    @DisplayName("generate: version 7, RFC variant, timestamp from the clock")
+    void generate_layout() {
+        UUID id = new TimeOrderedUuid(() -> 1_760_000_000_123L).generate();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(TimeOrderedUuid.timestamp(id)).isEqualTo(1_760_000_000_123L);
+    }
+
+    @Test
+    @DisplayName("generate: strictly increasing within a millisecond, past sequence overflow and when the clock steps back")
+    void generate_monotonic() {
+        long[] now = {1_760_000_000_000L};
+        TimeOrderedUuid generator = new TimeOrderedUuid(() -> now[0]);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) ids.add(generator.generate());
+        now[0] -= 5_000;
+        for (int i = 0; i < 100; i++) ids.add(generator.generate());
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(BYTE_ORDER.compare(ids.get(i - 1), ids.get(i))).isNegative();
+        }
+    }
+
+    @Test
+    @DisplayName("generate: unique and ordered per thread under concurrent use")
+    void generate_concurrent() throws InterruptedException {
+        TimeOrderedUuid generator = new TimeOrderedUuid(System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 20_000;
+        ConcurrentLinkedQueue<UUID> all = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Boolean> ordered = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                UUID previous = null;
+                boolean inOrder = true;
+                for (int i = 0; i < perThread; i++) {
+                    UUID id = generator.generate();
+                    if (previous != null && BYTE_ORDER.compare(previous, id) >= 0) inOrder = false;
+                    all.add(id);
+                    previous = id;
+                }
+                ordered.add(inOrder);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        Set<UUID> unique = new HashSet<>(all);
+        assertThat(unique).hasSize(threads * perThread);
+        assertThat(ordered).containsOnly(true);
+    }
+}
@@ -1,5 +1,5 @@
 import React, { createContext, useContext, useState, useEffect, useCallback } from 'react'
-import { getAllEmails, getAllTemplates, getStatistics } from '../services/api'
+import { listEmails, getAllTemplates, getStatistics } from '../services/api'
 
 const GlobalContext = createContext(null)
 
@@ -18,8 +18,9 @@ export function GlobalProvider({ children }) {
   const fetchEmails = useCallback(async () => {
     setLoading(l => ({ ...l, emails: true }))
     try {
-      const res = await getAllEmails()
-      setEmails(res.data)
+      // Most recent page only, oldest first — enough for the dashboard's trend and recent list
+      const res = await listEmails({ limit: 500 })
+      setEmails([...res.data.items].reverse())
     } catch {
       showToast('Failed to load emails', 'error')
     } finally {
@@ -1,6 +1,6 @@
-import React, { useState, useMemo } from 'react'
+import React, { useState, useEffect, useCallback } from 'react'
 import { useGlobal } from '../context/GlobalContext'
-import { retryEmail } from '../services/api'
+import { listEmails, retryEmail } from '../services/api'
 import StatusBadge from '../components/StatusBadge'
 
 const card = {
@@ -15,28 +15,61 @@ const inputStyle = {
 
 const selectStyle = { ...inputStyle, minWidth: 120 }
 
+const PAGE_SIZE = 50
+
+// Date inputs give YYYY-MM-DD; the "to" day is included, so the range ends at the next midnight
+function toQuery(filters) {
+  const params = { limit: PAGE_SIZE }
+  if (filters.status) params.status = filters.status
+  if (filters.recipient.trim()) params.recipient = filters.recipient.trim()
+  if (filters.dateFrom) params.from = `${filters.dateFrom}T00:00:00`
+  if (filters.dateTo) {
+    const end = new Date(`${filters.dateTo}T00:00:00`)
+    end.setDate(end.getDate() + 1)
+    const pad = n => String(n).padStart(2, '0')
+    params.to = `${end.getFullYear()}-${pad(end.getMonth() + 1)}-${pad(end.getDate())}T00:00:00`
+  }
+  return params
+}
+
 export default function AllMails() {
-  const { emails, loading, fetchEmails, showToast } = useGlobal()
+  const { fetchEmails, showToast } = useGlobal()
   const [filters, setFilters] = useState({ status: '', recipient: '', dateFrom: '', dateTo: '' })
+  const [query, setQuery] = useState(toQuery(filters))
+  const [emails, setEmails] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
+  const [loading, setLoading] = useState(false)
   const [retrying, setRetrying] = useState(null)
 
   const handleFilter = (key, val) => setFilters(f => ({ ...f, [key]: val }))
 
-  const filtered = useMemo(() => {
-    return emails.filter(e => {
-      if (filters.status && e.status !== filters.status) return false
-      if (filters.recipient && !e.recipientEmail?.toLowerCase().includes(filters.recipient.toLowerCase())) return false
-      if (filters.dateFrom && new Date(e.createdAt) < new Date(filters.dateFrom)) return false
-      if (filters.dateTo && new Date(e.createdAt) > new Date(filters.dateTo)) return false
-      return true
-    })
-  }, [emails, filters])
+  // Filtering happens on the server; typing in the recipient box waits for a pause
+  useEffect(() => {
+    const timer = setTimeout(() => setQuery(toQuery(filters)), filters.recipient ? 300 : 0)
+    return () => clearTimeout(timer)
+  }, [filters])
+
+  const loadPage = useCallback(async (cursor) => {
+    setLoading(true)
+    try {
+      const res = await listEmails(cursor ? { ...query, cursor } : query)
+      setEmails(prev => cursor ? [...prev, ...res.data.items] : res.data.items)
+      setNextCursor(res.data.nextCursor)
+    } catch {
+      showToast('Failed to load emails', 'error')
+    } finally {
+      setLoading(false)
+    }
+  }, [query, showToast])
+
+  useEffect(() => { loadPage(null) }, [loadPage])
 
   const handleRetry = async (id) => {
     setRetrying(id)
     try {
       await retryEmail(id)
       showToast('Retry initiated!', 'success')
+      loadPage(null)
       fetchEmails()
     } catch {
       showToast('Retry failed', 'error')
@@ -51,7 +84,7 @@ export default function AllMails() {
     <div style={{ maxWidth: 1200, margin: '0 auto', padding: '28px 24px' }}>
       <div style={{ marginBottom: 20 }}>
         <h1 style={{ fontSize: 22, fontWeight: 700 }}>All Emails</h1>
-        <p style={{ color: 'var(--text-secondary)', fontSize: 13.5 }}>{emails.length} total emails</p>
+        <p style={{ color: 'var(--text-secondary)', fontSize: 13.5 }}>Newest first, {PAGE_SIZE} at a time</p>
       </div>
 
       {/* Filters */}
@@ -64,11 +97,13 @@ export default function AllMails() {
             <option value="SENT">Sent</option>
             <option value="FAILED">Failed</option>
             <option value="QUEUED">Queued</option>
+            <option value="SCHEDULED">Scheduled</option>
+            <option value="PARKED">Parked</option>
             <option value="DRAFT">Draft</option>
           </select>
 
           <input
-            style={inputStyle} placeholder="🔍 Search recipient..."
+            style={inputStyle} placeholder="🔍 Recipient starts with..."
             value={filters.recipient} onChange={e => handleFilter('recipient', e.target.value)}
           />
 
@@ -95,9 +130,9 @@ export default function AllMails() {
 
       {/* Table */}
       <div style={card}>
-        {loading.emails ? (
+        {loading && emails.length === 0 ? (
           <p style={{ padding: 40, textAlign: 'center', color: 'var(--text-muted)' }}>Loading emails...</p>
-        ) : filtered.length === 0 ? (
+        ) : emails.length === 0 ? (
           <p style={{ padding: 40, textAlign: 'center', color: 'var(--text-muted)' }}>No emails found</p>
         ) : (
           <div style={{ overflowX: 'auto' }}>
@@ -110,7 +145,7 @@ export default function AllMails() {
                 </tr>
               </thead>
               <tbody>
-                {filtered.map((email, i) => (
+                {emails.map((email, i) => (
                   <tr key={email.id || i} style={{ borderBottom: '1px solid #f3f4f6', transition: 'background 0.1s' }}
                     onMouseEnter={e => e.currentTarget.style.background = '#fafafa'}
                     onMouseLeave={e => e.currentTarget.style.background = 'transparent'}
@@ -143,8 +178,17 @@ export default function AllMails() {
             </table>
           </div>
         )}
-        <div style={{ padding: '12px 16px', borderTop: '1px solid var(--border)', fontSize: 12.5, color: 'var(--text-muted)' }}>
-          Showing {filtered.length} of {emails.length} emails
+        <div style={{ padding: '12px 16px', borderTop: '1px solid var(--border)', fontSize: 12.5, color: 'var(--text-muted)', display: 'flex', alignItems: 'center', justifyContent: 'space-between' }}>
+          <span>Showing {emails.length} emails{nextCursor ? '' : ' — end of list'}</span>
+          {nextCursor && (
+            <button
+              onClick={() => loadPage(nextCursor)}
+              disabled={loading}
+              style={{ padding: '6px 14px', borderRadius: 8, fontSize: 12.5, background: '#f3f4f6', color: 'var(--text-secondary)', border: '1px solid var(--border)' }}
+            >
+              {loading ? 'Loading...' : 'Load more'}
+            </button>
+          )}
         </div>
       </div>
     </div>
@@ -79,7 +79,7 @@ export default function Dashboard() {
       </div>
 
       <div style={{ display: 'grid', gridTemplateColumns: 'repeat(auto-fit, minmax(200px, 1fr))', gap: 16, marginBottom: 24 }}>
-        <StatCard label="Total Emails" value={emails.length} accent="#2563eb" icon="📧" />
+        <StatCard label="Total Emails" value={stats?.totalEmails} accent="#2563eb" icon="📧" />
         <StatCard label="Sent" value={stats?.totalSent} accent="#16a34a" icon="✅" />
         <StatCard label="Failed" value={stats?.totalFailed} accent="#dc2626" icon="❌" />
         <StatCard label="Success Rate" value={stats ? `${stats.successRate?.toFixed(1)}%` : null} accent="#7c3aed" icon="📈" />
@@ -10,7 +10,9 @@ const api = axios.create({
 export const sendEmail    = (data) => api.post('/emails/send', data)
 export const retryEmail   = (id)   => api.post(`/emails/${id}/retry`)
 export const getEmailById = (id)   => api.get(`/emails/${id}`)
-export const getAllEmails  = ()     => api.get('/emails')
+// One keyset page, newest first: { items, nextCursor }. Params: status, recipient (prefix),
+// from/to (ISO date-time, to exclusive), cursor (nextCursor of the previous page), limit
+export const listEmails   = (params) => api.get('/emails', { params })
 
 // ── Templates ───────────────────────────────────────────
 export const createTemplate = (data) => api.post('/templates', data)